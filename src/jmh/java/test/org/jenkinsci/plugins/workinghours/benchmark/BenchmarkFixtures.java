@@ -0,0 +1,93 @@
+package test.org.jenkinsci.plugins.workinghours.benchmark;
+
+import hudson.model.Action;
+import hudson.model.Actionable;
+import org.jenkinsci.plugins.workinghours.actions.EnforceBuildScheduleAction;
+import org.jenkinsci.plugins.workinghours.model.ExcludedDate;
+import org.jenkinsci.plugins.workinghours.model.RepeatPeriod;
+import org.jenkinsci.plugins.workinghours.model.TimeRange;
+import test.org.jenkinsci.plugins.workinghours.utility.ExcludedDateUtility;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helper methods to create configurations of different sizes for the benchmarks.
+ */
+final class BenchmarkFixtures {
+
+    /*Holidays which exist in every year of the region's calendar.*/
+    private static final String[][] HOLIDAYS = {
+        {"DE", "NEW_YEAR"}, {"DE", "LABOUR_DAY"}, {"DE", "CHRISTMAS"},
+        {"US", "INDEPENDENCE"}, {"US", "THANKSGIVING"}, {"GB", "CHRISTMAS"},
+    };
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Time ranges spread over the week, one hour each.
+     *
+     * @param count How many time ranges to create.
+     * @return List of time ranges.
+     */
+    static List<TimeRange> timeRanges(int count) {
+        List<TimeRange> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int start = (i * 37) % 1380;
+            result.add(new TimeRange(start, start + 60, i % 7));
+        }
+        return result;
+    }
+
+    /**
+     * A mix of holiday, dynamic and static excluded dates, none of which excludes today.
+     *
+     * @param count How many excluded dates to create.
+     * @return List of excluded dates.
+     */
+    static List<ExcludedDate> excludedDates(int count) {
+        List<ExcludedDate> result = new ArrayList<>(count);
+        LocalDate longAgo = LocalDate.now().minusYears(5);
+        for (int i = 0; i < count; i++) {
+            switch (i % 3) {
+                case 0:
+                    String[] holiday = HOLIDAYS[i % HOLIDAYS.length];
+                    result.add(ExcludedDateUtility.holiday(holiday[0], holiday[1]));
+                    break;
+                case 1:
+                    result.add(ExcludedDateUtility.dynamicDate(1 + i % 12, 1 + i % 4, 1 + i % 7,
+                        i % 2 == 0 ? RepeatPeriod.REPEAT_BY_MONTH : RepeatPeriod.REPEAT_BY_YEAR));
+                    break;
+                default:
+                    result.add(ExcludedDateUtility.staticDate(longAgo.plusDays(i)));
+                    break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * An item which always carries an {@link EnforceBuildScheduleAction},
+     * without going through Jenkins' transient action factories.
+     */
+    static final class ScheduledItem extends Actionable {
+        private final EnforceBuildScheduleAction action = new EnforceBuildScheduleAction();
+
+        @Override
+        public <T extends Action> T getAction(Class<T> type) {
+            return type.isInstance(action) ? type.cast(action) : null;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "benchmark";
+        }
+
+        @Override
+        public String getSearchUrl() {
+            return "benchmark";
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package test.org.jenkinsci.plugins.workinghours.benchmark;
+
+import org.jenkinsci.plugins.workinghours.utils.DynamicDateUtil;
+import org.jenkinsci.plugins.workinghours.utils.JollydayUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the date calculations behind dynamic and holiday excluded dates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalendarBenchmark {
+
+    @Param({"DE", "US"})
+    public String region;
+
+    private LocalDate today;
+
+    @Setup
+    public void setUp() {
+        today = LocalDate.now();
+    }
+
+    @Benchmark
+    public LocalDate nextOccurrenceByMonth() {
+        return DynamicDateUtil.nextOccurrenceByMonth(3, 3, today);
+    }
+
+    @Benchmark
+    public LocalDate nextOccurrenceByYear() {
+        return DynamicDateUtil.nextOccurrenceByYear(11, 4, 4, today);
+    }
+
+    @Benchmark
+    public int getHolidayThisYear() {
+        return JollydayUtil.getHolidayThisYear(region, "CHRISTMAS");
+    }
+}
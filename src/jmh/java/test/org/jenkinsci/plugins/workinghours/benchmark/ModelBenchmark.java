@@ -0,0 +1,89 @@
+package test.org.jenkinsci.plugins.workinghours.benchmark;
+
+import org.jenkinsci.plugins.workinghours.model.ExcludedDate;
+import org.jenkinsci.plugins.workinghours.model.RepeatPeriod;
+import org.jenkinsci.plugins.workinghours.model.TimeRange;
+import org.jenkinsci.plugins.workinghours.utils.TimeSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import test.org.jenkinsci.plugins.workinghours.utility.ExcludedDateUtility;
+
+import java.time.LocalDate;
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single {@link TimeRange#includesTime} and {@link ExcludedDate#shouldExclude}
+ * check for each kind of excluded date, next to their primitive counterparts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+
+    @Param({"holiday", "dynamicByMonth", "dynamicByYear", "static"})
+    public String excludedDateKind;
+
+    private TimeRange timeRange;
+    private ExcludedDate excludedDate;
+    private Calendar now;
+    private int dayOfWeek;
+    private int minuteOfDay;
+    private int epochDay;
+
+    @Setup
+    public void setUp() {
+        timeRange = new TimeRange(540, 1020, 1);
+        switch (excludedDateKind) {
+            case "holiday":
+                excludedDate = ExcludedDateUtility.holiday("DE", "CHRISTMAS");
+                break;
+            case "dynamicByMonth":
+                excludedDate = ExcludedDateUtility.dynamicDate(1, 3, 3, RepeatPeriod.REPEAT_BY_MONTH);
+                break;
+            case "dynamicByYear":
+                excludedDate = ExcludedDateUtility.dynamicDate(11, 4, 4, RepeatPeriod.REPEAT_BY_YEAR);
+                break;
+            default:
+                excludedDate = ExcludedDateUtility.staticDate(LocalDate.now().minusDays(1));
+                break;
+        }
+        now = Calendar.getInstance();
+        long epochMinute = TimeSource.epochMinute();
+        epochDay = TimeSource.epochDay(epochMinute);
+        dayOfWeek = TimeSource.dayOfWeek(epochDay);
+        minuteOfDay = TimeSource.minuteOfDay(epochMinute);
+    }
+
+    @Benchmark
+    public Boolean includesTime() {
+        return timeRange.includesTime(now);
+    }
+
+    @Benchmark
+    public Boolean shouldExclude() {
+        return excludedDate.shouldExclude(now);
+    }
+
+    @Benchmark
+    public boolean includes() {
+        return timeRange.includes(dayOfWeek, minuteOfDay);
+    }
+
+    @Benchmark
+    public boolean excludes() {
+        return excludedDate.excludes(epochDay);
+    }
+}
@@ -0,0 +1,83 @@
+package test.org.jenkinsci.plugins.workinghours.benchmark;
+
+import org.jenkinsci.plugins.workinghours.WorkingHoursQueueTaskDispatcher;
+import org.jenkinsci.plugins.workinghours.model.ExcludedDate;
+import org.jenkinsci.plugins.workinghours.model.TimeRange;
+import org.jenkinsci.plugins.workinghours.schedule.ScheduleSnapshot;
+import org.jenkinsci.plugins.workinghours.schedule.ScheduleVerdictCache;
+import org.jenkinsci.plugins.workinghours.utils.TimeSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the whole schedule check made by the dispatcher for every blocked queue item,
+ * next to the linear scan it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScheduleBenchmark {
+
+    @Param({"1", "35", "10000"})
+    public int timeRangeCount;
+
+    @Param({"0", "25", "5000"})
+    public int excludedDateCount;
+
+    private List<TimeRange> timeRanges;
+    private List<ExcludedDate> excludedDates;
+    private ScheduleSnapshot snapshot;
+    private WorkingHoursQueueTaskDispatcher dispatcher;
+    private BenchmarkFixtures.ScheduledItem item;
+
+    @Setup
+    public void setUp() {
+        timeRanges = BenchmarkFixtures.timeRanges(timeRangeCount);
+        excludedDates = BenchmarkFixtures.excludedDates(excludedDateCount);
+        snapshot = new ScheduleSnapshot(timeRanges, excludedDates);
+        dispatcher = new WorkingHoursQueueTaskDispatcher();
+        item = new BenchmarkFixtures.ScheduledItem();
+    }
+
+    @Benchmark
+    public boolean canRunNow() {
+        return dispatcher.canRunNow(snapshot, item, null);
+    }
+
+    @Benchmark
+    public boolean uncachedVerdict() {
+        return new ScheduleVerdictCache().lookup(snapshot, TimeSource.epochMinute()).isAllowed();
+    }
+
+    @Benchmark
+    public boolean linearScan() {
+        Calendar now = Calendar.getInstance();
+        for (ExcludedDate excludedDate : excludedDates) {
+            if (excludedDate.shouldExclude(now)) {
+                return false;
+            }
+        }
+        for (TimeRange timeRange : timeRanges) {
+            if (timeRange.includesTime(now)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,86 @@
+package org.jenkinsci.plugins.workinghours;
+
+import hudson.Extension;
+import hudson.model.Queue;
+import hudson.model.queue.QueueListener;
+import org.jenkinsci.plugins.workinghours.actions.EnforceBuildScheduleAction;
+import org.jenkinsci.plugins.workinghours.schedule.ScheduleSnapshot;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers, per queue item, until when it stays blocked,
+ * so {@link WorkingHoursQueueTaskDispatcher} can answer the repeated {@code canRun} calls
+ * of each queue maintenance without evaluating the schedule again.
+ * An entry no longer applies once the schedule may change, the configuration is replaced,
+ * or the item is released manually. Entries are dropped when the item leaves the queue.
+ */
+@Extension(optional = true)
+public class BlockedItemCache extends QueueListener {
+
+    /*Queue item id -> until when it is blocked.*/
+    private static final Map<Long, Blocked> BLOCKED = new ConcurrentHashMap<>();
+
+    /**
+     * Whether a queue item is known to be blocked at a moment.
+     *
+     * @param item        The queue item to check.
+     * @param snapshot    The configuration in effect.
+     * @param epochMinute The moment to check, as a local epoch minute.
+     * @return true if the item was blocked with the same configuration and nothing changed since.
+     */
+    public static boolean isBlocked(Queue.Item item, ScheduleSnapshot snapshot, long epochMinute) {
+        Blocked blocked = BLOCKED.get(item.getId());
+        return blocked != null
+            && blocked.snapshot == snapshot
+            && epochMinute >= blocked.since
+            && epochMinute < blocked.notBefore
+            && (blocked.action == null || !blocked.action.isReleased());
+    }
+
+    /**
+     * Remembers that a queue item is blocked.
+     *
+     * @param item      The blocked queue item.
+     * @param snapshot  The configuration it was blocked by.
+     * @param since     The local epoch minute at which it was blocked.
+     * @param notBefore The local epoch minute at which the schedule may change.
+     * @param action    The action through which the item can be released, if any.
+     */
+    public static void block(Queue.Item item, ScheduleSnapshot snapshot, long since, long notBefore,
+                             EnforceBuildScheduleAction action) {
+        BLOCKED.put(item.getId(), new Blocked(snapshot, since, notBefore, action));
+    }
+
+    /**
+     * Forgets a queue item, once it may run.
+     *
+     * @param item The queue item.
+     */
+    public static void unblock(Queue.Item item) {
+        BLOCKED.remove(item.getId());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onLeft(Queue.LeftItem li) {
+        BLOCKED.remove(li.getId());
+    }
+
+    private static final class Blocked {
+        private final ScheduleSnapshot snapshot;
+        private final long since;
+        private final long notBefore;
+        private final EnforceBuildScheduleAction action;
+
+        Blocked(ScheduleSnapshot snapshot, long since, long notBefore, EnforceBuildScheduleAction action) {
+            this.snapshot = snapshot;
+            this.since = since;
+            this.notBefore = notBefore;
+            this.action = action;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.jenkinsci.plugins.workinghours;
+
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.StaplerRequest;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves a list of the configuration as JSON, serialized once per version of the list rather
+ * than once per request, for GET requests that can be cached.
+ * <p>
+ * The snapshot keeps the same list instance until the list itself is set again, so the bytes,
+ * their gzipped copy and their ETag are kept until a request sees a different instance.
+ * A request whose If-None-Match names the current ETag gets a 304 without a body.
+ */
+public final class CachedListResponse {
+
+    /*Smaller bodies are sent as they are, gzip would hardly save anything on them.*/
+    private static final int MIN_GZIP_SIZE = 1024;
+
+    /*The list and its serialized forms, replaced as a whole.*/
+    private volatile Entry entry;
+
+    /**
+     * Get the response for the current version of a list.
+     *
+     * @param list The list, as held by the current snapshot.
+     * @return {@link HttpResponse} Response with the list, in the same envelope as {@code HttpResponses.okJSON}.
+     */
+    public HttpResponse respond(List<?> list) {
+        Entry current = this.entry;
+        if (current == null || current.list != list) {
+            current = new Entry(list);
+            this.entry = current;
+        }
+        final Entry served = current;
+        return (request, response, node) -> {
+            response.setHeader("ETag", served.etag);
+            response.setHeader("Cache-Control", "no-cache");
+            response.setHeader("Vary", "Accept-Encoding");
+            if (matches(request.getHeader("If-None-Match"), served.etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+            byte[] body = served.bytes;
+            if (served.gzipped != null && acceptsGzip(request)) {
+                response.setHeader("Content-Encoding", "gzip");
+                body = served.gzipped;
+            }
+            response.setContentType("application/json;charset=UTF-8");
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        };
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*") || candidate.equals(etag) || ("W/" + candidate).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(StaplerRequest request) {
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+        return acceptEncoding != null && acceptEncoding.contains("gzip");
+    }
+
+    private static final class Entry {
+        private final List<?> list;
+        private final byte[] bytes;
+        private final byte[] gzipped;
+        private final String etag;
+
+        Entry(List<?> list) {
+            this.list = list;
+            JSONObject body = new JSONObject();
+            body.put("status", "ok");
+            body.put("data", JSONArray.fromObject(list));
+            this.bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+            this.gzipped = bytes.length < MIN_GZIP_SIZE ? null : gzip(bytes);
+            /*Weak, as the same ETag is sent for the plain and the gzipped body.*/
+            this.etag = "W/\"" + digest(bytes) + '"';
+        }
+
+        private static byte[] gzip(byte[] bytes) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+
+        private static String digest(byte[] bytes) {
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+                return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 12));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
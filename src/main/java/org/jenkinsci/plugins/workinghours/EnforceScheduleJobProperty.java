@@ -24,24 +24,60 @@
 package org.jenkinsci.plugins.workinghours;
 
 import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.Util;
+import hudson.util.FormValidation;
+import hudson.util.ListBoxModel;
 import jenkins.model.OptionalJobProperty;
 import org.jenkinsci.Symbol;
 import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workinghours.model.ScheduleProfile;
+import org.kohsuke.stapler.AncestorInPath;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+
+import javax.annotation.CheckForNull;
 
 /**
- * Job property which is used to opt in to build schedules
+ * Job property which is used to opt in to build schedules,
+ * either the global one or a named {@link ScheduleProfile}.
  * @author jxpearce@godaddy.com
  */
 public class EnforceScheduleJobProperty extends OptionalJobProperty<WorkflowJob> {
 
+    /**
+     * The name of the schedule profile to enforce, or null for the global time ranges.
+     */
+    private String profile;
+
     /**
      * Constructor
      */
     @DataBoundConstructor
     public EnforceScheduleJobProperty() {
     }
-    
+
+    /**
+     * Gets the name of the schedule profile to enforce.
+     *
+     * @return the profile's name, or null for the global time ranges.
+     */
+    @CheckForNull
+    public String getProfile() {
+        return profile;
+    }
+
+    /**
+     * Sets the name of the schedule profile to enforce.
+     *
+     * @param profile the profile's name, or empty for the global time ranges.
+     */
+    @DataBoundSetter
+    public void setProfile(@CheckForNull String profile) {
+        this.profile = Util.fixEmptyAndTrim(profile);
+    }
+
     /**
      * Required descriptor
      */
@@ -53,6 +89,47 @@ public class EnforceScheduleJobProperty extends OptionalJobProperty<WorkflowJob>
             return Messages.EnforceScheduleJobProperty_DescriptorImpl_DisplayName();
         }
 
+        /**
+         * Fills the list of schedule profiles to choose from.
+         * A profile the job names which no longer exists stays selected, so it is not
+         * silently replaced by the global time ranges when the job is saved.
+         *
+         * @param job the job being configured, if any.
+         * @return the global time ranges, then each profile.
+         */
+        public ListBoxModel doFillProfileItems(@AncestorInPath WorkflowJob job) {
+            ListBoxModel items = new ListBoxModel();
+            items.add(Messages.EnforceScheduleJobProperty_DescriptorImpl_DefaultProfile(), "");
+            for (ScheduleProfile scheduleProfile : getConfig().getScheduleProfiles()) {
+                items.add(scheduleProfile.getName());
+            }
+            EnforceScheduleJobProperty property = job == null ? null : job.getProperty(EnforceScheduleJobProperty.class);
+            String name = property == null ? null : property.getProfile();
+            if (name != null && !getConfig().getSnapshot().hasProfile(name)) {
+                items.add(new ListBoxModel.Option(
+                        Messages.EnforceScheduleJobProperty_DescriptorImpl_UnknownProfile(name), name, true));
+            }
+            return items;
+        }
+
+        /**
+         * Checks that the profile exists.
+         *
+         * @param value the profile's name, or empty for the global time ranges.
+         * @return an error if there is no such profile.
+         */
+        public FormValidation doCheckProfile(@QueryParameter String value) {
+            String name = Util.fixEmptyAndTrim(value);
+            if (name != null && !getConfig().getSnapshot().hasProfile(name)) {
+                return FormValidation.error(Messages.EnforceScheduleJobProperty_DescriptorImpl_UnknownProfile(name));
+            }
+            return FormValidation.ok();
+        }
+
+        private static WorkingHoursPlugin getConfig() {
+            return ExtensionList.lookup(WorkingHoursPlugin.class).get(0);
+        }
+
     }
 
 
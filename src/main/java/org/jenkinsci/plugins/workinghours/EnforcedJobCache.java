@@ -0,0 +1,128 @@
+package org.jenkinsci.plugins.workinghours;
+
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Saveable;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+
+import javax.annotation.CheckForNull;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers, per job, whether it opted in to build schedules with {@link EnforceScheduleJobProperty}
+ * and which schedule profile it enforces, so the dispatcher and {@link org.jenkinsci.plugins.workinghours.actions.ReleaseJobAction.Factory}
+ * don't have to scan the job's properties on every call.
+ * Entries are refreshed when a job is created, updated, saved or moved, and dropped when it is deleted.
+ */
+@Extension(optional = true)
+public class EnforcedJobCache extends ItemListener {
+
+    /*Stands for jobs without the property, as the map cannot hold null.*/
+    private static final EnforceScheduleJobProperty NOT_ENFORCED = new EnforceScheduleJobProperty();
+
+    /*Job -> its EnforceScheduleJobProperty, or NOT_ENFORCED.*/
+    private static final Map<WorkflowJob, EnforceScheduleJobProperty> ENFORCED = new ConcurrentHashMap<>();
+
+    /**
+     * Whether a job enforces the build schedule.
+     *
+     * @param job The job to check.
+     * @return true if the job has the {@link EnforceScheduleJobProperty} property.
+     */
+    public static boolean isEnforced(WorkflowJob job) {
+        return getProperty(job) != null;
+    }
+
+    /**
+     * Get how a job enforces the build schedule.
+     *
+     * @param job The job to check.
+     * @return {@link EnforceScheduleJobProperty} The job's property, naming the profile it enforces,
+     * or null if the job does not enforce the build schedule.
+     */
+    @CheckForNull
+    public static EnforceScheduleJobProperty getProperty(WorkflowJob job) {
+        EnforceScheduleJobProperty property = ENFORCED.get(job);
+        if (property == null) {
+            property = refresh(job);
+        }
+        return property == NOT_ENFORCED ? null : property;
+    }
+
+    private static EnforceScheduleJobProperty refresh(WorkflowJob job) {
+        EnforceScheduleJobProperty property = job.getProperty(EnforceScheduleJobProperty.class);
+        if (property == null) {
+            property = NOT_ENFORCED;
+        }
+        ENFORCED.put(job, property);
+        return property;
+    }
+
+    private static void refreshIfWorkflow(Object item) {
+        if (item instanceof WorkflowJob) {
+            refresh((WorkflowJob) item);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onCreated(Item item) {
+        refreshIfWorkflow(item);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onUpdated(Item item) {
+        refreshIfWorkflow(item);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onDeleted(Item item) {
+        ENFORCED.remove(item);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Also covers renames, and moves of folders containing jobs.
+     */
+    @Override
+    public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+        refreshIfWorkflow(item);
+    }
+
+    /**
+     * {@inheritDoc}
+     * All jobs have been (re)loaded from disk, so nothing cached before can be trusted.
+     */
+    @Override
+    public void onLoaded() {
+        ENFORCED.clear();
+    }
+
+    /**
+     * Refreshes the cache when a job is saved, which is how properties set by
+     * the pipeline {@code properties} step are persisted.
+     */
+    @Extension(optional = true)
+    public static class SaveListener extends SaveableListener {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            refreshIfWorkflow(o);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.jenkinsci.plugins.workinghours;
+
+import jenkins.model.Jenkins;
+import jenkins.util.Timer;
+import org.jenkinsci.plugins.workinghours.model.DateType;
+import org.jenkinsci.plugins.workinghours.model.ExcludedDate;
+import org.jenkinsci.plugins.workinghours.presets.PresetManager;
+import org.jenkinsci.plugins.workinghours.schedule.ExcludedDayCalendar;
+import org.jenkinsci.plugins.workinghours.utils.HolidayStore;
+import org.jenkinsci.plugins.workinghours.utils.JollydayUtil;
+import org.jenkinsci.plugins.workinghours.utils.TimeSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Loads the holidays referenced by the excluded dates on a background thread once the
+ * configuration is loaded, then compiles them into the schedule.
+ * This keeps the first queue maintenance after a restart from loading holiday data
+ * while it holds the Queue lock. Until the warm-up is done, the dispatcher checks
+ * the excluded dates one by one, as before.
+ * <p>
+ * The holidays are read from the {@link HolidayStore} under the Jenkins home if they were
+ * resolved before, and the ones that were not are written back to it.
+ */
+final class HolidayWarmUp implements Runnable {
+
+    private static final Logger LOGGER = Logger.getLogger(HolidayWarmUp.class.getName());
+
+    /*The file under the Jenkins home the resolved holidays are kept in.*/
+    private static final String STORE_FILE = "working-hours-holidays.bin";
+
+    private final WorkingHoursPlugin plugin;
+    private final List<ExcludedDate> excludedDates;
+
+    private HolidayWarmUp(WorkingHoursPlugin plugin, List<ExcludedDate> excludedDates) {
+        this.plugin = plugin;
+        this.excludedDates = excludedDates;
+    }
+
+    /**
+     * Whether any of the excluded dates is a holiday.
+     *
+     * @param excludedDates The excluded dates, may be null.
+     * @return true if there is holiday data to load.
+     */
+    static boolean needsWarmUp(List<ExcludedDate> excludedDates) {
+        if (excludedDates != null) {
+            for (ExcludedDate excludedDate : excludedDates) {
+                if (excludedDate.getType() == DateType.TYPE_HOLIDAY.getValue()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Starts warming up the holidays of the plugin's current configuration.
+     *
+     * @param plugin The plugin whose excluded days are compiled once the holidays are loaded.
+     */
+    static void start(WorkingHoursPlugin plugin) {
+        Timer.get().submit(new HolidayWarmUp(plugin, plugin.getSnapshot().getExcludedDates()));
+    }
+
+    /**
+     * Open the store of resolved holidays under the Jenkins home, unless it is open already.
+     */
+    static synchronized void openStore() {
+        if (JollydayUtil.getStore() == null) {
+            File file = new File(Jenkins.get().getRootDir(), STORE_FILE);
+            JollydayUtil.setStore(HolidayStore.open(file, JollydayUtil.getDataVersion()));
+        }
+    }
+
+    /**
+     * Write the holidays resolved since the store was last written, dropping past years.
+     */
+    static void saveStore() {
+        HolidayStore store = JollydayUtil.getStore();
+        if (store != null && store.isDirty()) {
+            try {
+                store.save(TimeSource.currentYear());
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Could not save holiday data", e);
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        long start = System.nanoTime();
+        openStore();
+        Set<String> holidays = new LinkedHashSet<>();
+        int firstYear = TimeSource.currentYear();
+        for (ExcludedDate excludedDate : excludedDates) {
+            if (excludedDate.getType() != DateType.TYPE_HOLIDAY.getValue()
+                || !holidays.add(excludedDate.getHolidayRegion() + '/' + excludedDate.getHolidayId())) {
+                continue;
+            }
+            try {
+                for (int year = firstYear; year < firstYear + ExcludedDayCalendar.YEARS; year++) {
+                    PresetManager.getInstance().getHolidayEpochDay(
+                        excludedDate.getHolidayRegion(), excludedDate.getHolidayId(), year);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, String.format("Could not load holiday %s of region %s",
+                    excludedDate.getHolidayId(), excludedDate.getHolidayRegion()), e);
+            }
+        }
+        plugin.refreshSchedule();
+        saveStore();
+        LOGGER.log(Level.FINE, String.format("Warmed up %d holidays in %d ms",
+            holidays.size(), (System.nanoTime() - start) / 1000000));
+    }
+}
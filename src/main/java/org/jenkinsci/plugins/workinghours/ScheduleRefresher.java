@@ -0,0 +1,39 @@
+package org.jenkinsci.plugins.workinghours;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+
+/**
+ * Keeps the precomputed schedule data current in the background, so it is never
+ * recomputed while the dispatcher holds the Queue lock.
+ */
+@Extension(optional = true)
+public class ScheduleRefresher extends AsyncPeriodicWork {
+
+    public ScheduleRefresher() {
+        super("Working hours schedule refresher");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getRecurrencePeriod() {
+        return HOUR;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Recompiles the excluded days at year rollover, extends the timeline of verdicts
+     * before it runs out, and writes the holidays resolved since
+     * the last run to the holiday store.
+     */
+    @Override
+    protected void execute(TaskListener listener) {
+        HolidayWarmUp.openStore();
+        ExtensionList.lookup(WorkingHoursPlugin.class).get(0).refreshSchedule();
+        HolidayWarmUp.saveStore();
+    }
+}
@@ -23,19 +23,37 @@
  */
 package org.jenkinsci.plugins.workinghours;
 
+import hudson.BulkChange;
 import hudson.ExtensionList;
 import hudson.Plugin;
+import hudson.XmlFile;
+import hudson.init.Terminator;
 import hudson.model.Describable;
 import hudson.model.Descriptor;
 import jenkins.model.GlobalConfiguration;
+import jenkins.model.Jenkins;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.jenkinsci.plugins.workinghours.model.BlackoutWindow;
 import org.jenkinsci.plugins.workinghours.model.TimeRange;
 import org.jenkinsci.plugins.workinghours.model.ExcludedDate;
+import org.jenkinsci.plugins.workinghours.model.NodeSchedule;
+import org.jenkinsci.plugins.workinghours.model.ScheduleProfile;
+import org.jenkinsci.plugins.workinghours.schedule.ScheduleSnapshot;
+import org.jenkinsci.plugins.workinghours.schedule.ScheduleTimeline;
+import org.jenkinsci.plugins.workinghours.utils.CompactConfig;
+import org.jenkinsci.plugins.workinghours.utils.CompactConfigStore;
+import org.jenkinsci.plugins.workinghours.utils.TimeSource;
 import hudson.Extension;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Calendar;
 import java.util.Collections;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 
@@ -47,6 +65,8 @@ import javax.annotation.Nonnull;
 @Extension(optional = true)
 public class WorkingHoursPlugin extends Descriptor<WorkingHoursPlugin> implements Describable<WorkingHoursPlugin> {
 
+    private static final Logger LOGGER = Logger.getLogger(WorkingHoursPlugin.class.getName());
+
     /**
      * The list of valid times.
      */
@@ -57,6 +77,37 @@ public class WorkingHoursPlugin extends Descriptor<WorkingHoursPlugin> implement
      */
     private List<ExcludedDate> excludedDates;
 
+    /**
+     * The list of blackout windows.
+     */
+    private List<BlackoutWindow> blackoutWindows;
+
+    /**
+     * The list of named schedule profiles.
+     */
+    private List<ScheduleProfile> scheduleProfiles;
+
+    /**
+     * The list of node and label schedules.
+     */
+    private List<NodeSchedule> nodeSchedules;
+
+    /**
+     * Immutable, precompiled view of the configuration, replaced as a whole
+     * whenever the configuration is loaded or set.
+     */
+    private transient volatile ScheduleSnapshot snapshot = ScheduleSnapshot.EMPTY;
+
+    /**
+     * Coalesces the writes of the configuration file, see {@link #save()}.
+     */
+    private final transient WriteBehind writeBehind = new WriteBehind(this::saveNow);
+
+    /**
+     * The file the configuration is kept in, set when it is loaded.
+     */
+    private transient CompactConfigStore store;
+
     /**
      * Default times for new configurations.
      */
@@ -83,9 +134,16 @@ public class WorkingHoursPlugin extends Descriptor<WorkingHoursPlugin> implement
      * @return list of included times.
      */
     public List<TimeRange> getBuildTimeMatrix() {
-        return this.buildTimeMatrix == null?
-            Collections.<TimeRange>emptyList()
-            : this.buildTimeMatrix;
+        return this.snapshot.getTimeRanges();
+    }
+
+    /**
+     * Gets the current snapshot of the configuration.
+     *
+     * @return the current configuration snapshot.
+     */
+    public ScheduleSnapshot getSnapshot() {
+        return this.snapshot;
     }
 
     /**
@@ -105,9 +163,10 @@ public class WorkingHoursPlugin extends Descriptor<WorkingHoursPlugin> implement
      *
      * @param value the list of included times.
      */
-    public void setBuildTimeMatrix(
+    public synchronized void setBuildTimeMatrix(
         @CheckForNull List<TimeRange> value) {
         this.buildTimeMatrix = value;
+        this.snapshot = this.snapshot.withTimeRanges(value);
         save();
     }
 
@@ -117,9 +176,7 @@ public class WorkingHoursPlugin extends Descriptor<WorkingHoursPlugin> implement
      * @return the list of excluded dates.
      */
     public List<ExcludedDate> getExcludedDates() {
-        return this.excludedDates == null
-            ? Collections.<ExcludedDate>emptyList()
-            : this.excludedDates;
+        return this.snapshot.getExcludedDates();
     }
 
     /**
@@ -127,12 +184,339 @@ public class WorkingHoursPlugin extends Descriptor<WorkingHoursPlugin> implement
      *
      * @param value the list of excluded dates.
      */
-    public void setExcludedDates(
+    public synchronized void setExcludedDates(
         @CheckForNull List<ExcludedDate> value) {
         this.excludedDates = value;
+        this.snapshot = this.snapshot.withExcludedDates(value);
+        save();
+    }
+
+    /**
+     * Adds a time range, compiling only its day into the schedule.
+     *
+     * @param value the time range to add.
+     */
+    public synchronized void addTimeRange(@Nonnull TimeRange value) {
+        List<TimeRange> timeRanges = new ArrayList<>(this.snapshot.getTimeRanges());
+        timeRanges.add(value);
+        changeTimeRanges(timeRanges, Collections.singletonList(value), Collections.<TimeRange>emptyList());
+    }
+
+    /**
+     * Replaces the time range with the same id, compiling only the days of the old and new one into the schedule.
+     *
+     * @param value the new time range.
+     * @return true if there was a time range with that id.
+     */
+    public synchronized boolean updateTimeRange(@Nonnull TimeRange value) {
+        List<TimeRange> timeRanges = new ArrayList<>(this.snapshot.getTimeRanges());
+        int index = indexOfTimeRange(timeRanges, value.getId());
+        if (index < 0) {
+            return false;
+        }
+        TimeRange removed = timeRanges.set(index, value);
+        changeTimeRanges(timeRanges, Collections.singletonList(value), Collections.singletonList(removed));
+        return true;
+    }
+
+    /**
+     * Deletes a time range, compiling only its day into the schedule.
+     *
+     * @param id the id of the time range.
+     * @return true if there was a time range with that id.
+     */
+    public synchronized boolean deleteTimeRange(String id) {
+        List<TimeRange> timeRanges = new ArrayList<>(this.snapshot.getTimeRanges());
+        int index = indexOfTimeRange(timeRanges, id);
+        if (index < 0) {
+            return false;
+        }
+        TimeRange removed = timeRanges.remove(index);
+        changeTimeRanges(timeRanges, Collections.<TimeRange>emptyList(), Collections.singletonList(removed));
+        return true;
+    }
+
+    private void changeTimeRanges(List<TimeRange> value, List<TimeRange> added, List<TimeRange> removed) {
+        this.buildTimeMatrix = value;
+        this.snapshot = this.snapshot.withTimeRanges(value, added, removed);
+        save();
+    }
+
+    private static int indexOfTimeRange(List<TimeRange> timeRanges, String id) {
+        for (int i = 0; i < timeRanges.size(); i++) {
+            if (timeRanges.get(i).getId().equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds an excluded date, compiling only that one into the schedule.
+     *
+     * @param value the excluded date to add.
+     */
+    public synchronized void addExcludedDate(@Nonnull ExcludedDate value) {
+        List<ExcludedDate> excludedDates = new ArrayList<>(this.snapshot.getExcludedDates());
+        excludedDates.add(value);
+        changeExcludedDates(excludedDates, Collections.singletonList(value), Collections.<ExcludedDate>emptyList());
+    }
+
+    /**
+     * Replaces the excluded date with the same id, compiling only that one into the schedule.
+     *
+     * @param value the new excluded date.
+     * @return true if there was an excluded date with that id.
+     */
+    public synchronized boolean updateExcludedDate(@Nonnull ExcludedDate value) {
+        List<ExcludedDate> excludedDates = new ArrayList<>(this.snapshot.getExcludedDates());
+        int index = indexOfExcludedDate(excludedDates, value.getId());
+        if (index < 0) {
+            return false;
+        }
+        ExcludedDate removed = excludedDates.set(index, value);
+        changeExcludedDates(excludedDates, Collections.singletonList(value), Collections.singletonList(removed));
+        return true;
+    }
+
+    /**
+     * Deletes an excluded date, compiling only that one out of the schedule.
+     *
+     * @param id the id of the excluded date.
+     * @return true if there was an excluded date with that id.
+     */
+    public synchronized boolean deleteExcludedDate(String id) {
+        List<ExcludedDate> excludedDates = new ArrayList<>(this.snapshot.getExcludedDates());
+        int index = indexOfExcludedDate(excludedDates, id);
+        if (index < 0) {
+            return false;
+        }
+        ExcludedDate removed = excludedDates.remove(index);
+        changeExcludedDates(excludedDates, Collections.<ExcludedDate>emptyList(), Collections.singletonList(removed));
+        return true;
+    }
+
+    private void changeExcludedDates(List<ExcludedDate> value, List<ExcludedDate> added, List<ExcludedDate> removed) {
+        this.excludedDates = value;
+        this.snapshot = this.snapshot.withExcludedDates(value, added, removed);
+        save();
+    }
+
+    private static int indexOfExcludedDate(List<ExcludedDate> excludedDates, String id) {
+        for (int i = 0; i < excludedDates.size(); i++) {
+            if (excludedDates.get(i).getId().equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the list of blackout windows.
+     *
+     * @return the list of blackout windows.
+     */
+    public List<BlackoutWindow> getBlackoutWindows() {
+        return this.snapshot.getBlackoutWindows();
+    }
+
+    /**
+     * Sets the list of blackout windows.
+     *
+     * @param value the list of blackout windows.
+     */
+    public synchronized void setBlackoutWindows(
+        @CheckForNull List<BlackoutWindow> value) {
+        this.blackoutWindows = value;
+        this.snapshot = this.snapshot.withBlackoutWindows(value);
+        save();
+    }
+
+    /**
+     * Gets the list of schedule profiles.
+     *
+     * @return the list of schedule profiles.
+     */
+    public List<ScheduleProfile> getScheduleProfiles() {
+        return this.snapshot.getScheduleProfiles();
+    }
+
+    /**
+     * Sets the list of schedule profiles.
+     *
+     * @param value the list of schedule profiles.
+     */
+    public synchronized void setScheduleProfiles(
+        @CheckForNull List<ScheduleProfile> value) {
+        this.scheduleProfiles = value;
+        this.snapshot = this.snapshot.withScheduleProfiles(value);
         save();
     }
 
+    /**
+     * Gets the list of node and label schedules.
+     *
+     * @return the list of node schedules.
+     */
+    public List<NodeSchedule> getNodeSchedules() {
+        return this.snapshot.getNodeSchedules();
+    }
+
+    /**
+     * Sets the list of node and label schedules.
+     *
+     * @param value the list of node schedules.
+     */
+    public synchronized void setNodeSchedules(
+        @CheckForNull List<NodeSchedule> value) {
+        this.nodeSchedules = value;
+        this.snapshot = this.snapshot.withNodeSchedules(value);
+        save();
+    }
+
+    /**
+     * Compiles the excluded days if they were deferred, or again once the year has
+     * rolled over, so they keep covering the current year and the next few ones.
+     * Otherwise evaluates the timeline again once less than half of it is left,
+     * so the dispatcher keeps finding its verdicts there.
+     */
+    public synchronized void refreshSchedule() {
+        ScheduleSnapshot current = this.snapshot;
+        if (!current.isExcludedDaysCompiled()
+            || !current.getExcludedDates().isEmpty()
+            && current.getExcludedDays().getFirstYear() != TimeSource.currentYear()) {
+            this.snapshot = current.withExcludedDaysRecompiled();
+        } else if (current.getTimeline().getUntil() - TimeSource.epochMinute()
+            < ScheduleTimeline.DAYS * (long) TimeSource.MINUTES_PER_DAY / 2) {
+            this.snapshot = current.withTimelineExtended();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The configuration is read from the {@link CompactConfigStore}, or from the XML file or its
+     * backup if there is no compact file yet, which is then migrated, or it cannot be read.
+     * Also publishes a new snapshot of the loaded configuration. If it refers to holidays,
+     * they are loaded and compiled in the background by {@link HolidayWarmUp}.
+     */
+    @Override
+    public synchronized void load() {
+        this.store = new CompactConfigStore(getCompactFile(), getConfigFile().getFile());
+        CompactConfig config = this.store.read();
+        if (config != null) {
+            this.buildTimeMatrix = config.getTimeRanges();
+            this.excludedDates = config.getExcludedDates();
+            this.blackoutWindows = config.getBlackoutWindows();
+            this.scheduleProfiles = config.getScheduleProfiles();
+            this.nodeSchedules = config.getNodeSchedules();
+        } else {
+            File fallback = this.store.getFallbackFile();
+            if (fallback != null) {
+                XmlFile xml = new XmlFile(fallback);
+                try {
+                    xml.unmarshal(this);
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Failed to load " + xml, e);
+                }
+                if (!this.store.isReadOnly()) {
+                    LOGGER.log(Level.INFO, "Migrating " + xml + " to " + getCompactFile());
+                    save();
+                }
+            }
+        }
+        if (HolidayWarmUp.needsWarmUp(this.excludedDates)) {
+            this.snapshot = ScheduleSnapshot.deferred(this.buildTimeMatrix, this.excludedDates, this.blackoutWindows,
+                this.scheduleProfiles).withNodeSchedules(this.nodeSchedules);
+            HolidayWarmUp.start(this);
+        } else {
+            this.snapshot = new ScheduleSnapshot(this.buildTimeMatrix, this.excludedDates, this.blackoutWindows,
+                this.scheduleProfiles).withNodeSchedules(this.nodeSchedules);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The changes are already in effect, but the configuration file is written on a background
+     * thread a moment later, together with any further changes made in the meantime.
+     * Nothing is written during a {@link BulkChange} on this configuration; its commit saves again.
+     */
+    @Override
+    public void save() {
+        if (BulkChange.contains(this)) {
+            return;
+        }
+        this.writeBehind.request();
+    }
+
+    /**
+     * Writes the configuration file right away, atomically, and under the lock the setters hold,
+     * so it matches the configuration at one moment.
+     * The configuration is written in the {@link CompactConfig} format by the {@link CompactConfigStore},
+     * which keeps the XML file it was migrated from as a backup, and refuses to overwrite the file if it
+     * could not be read. A configuration that cannot be saved is lost at the next restart, hence logged as severe.
+     */
+    synchronized void saveNow() {
+        ScheduleSnapshot current = this.snapshot;
+        try {
+            this.store.write(new CompactConfig(current.getTimeRanges(), current.getExcludedDates(),
+                current.getBlackoutWindows(), current.getScheduleProfiles(), current.getNodeSchedules()));
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to save the working hours configuration, changes will be lost at restart", e);
+        }
+    }
+
+    /**
+     * Whether changes to the configuration cannot be saved, as the file it is kept in could not be read.
+     *
+     * @return true if changes would only last until the next restart.
+     */
+    public boolean isReadOnly() {
+        CompactConfigStore current = this.store;
+        return current != null && current.isReadOnly();
+    }
+
+    /**
+     * Get the file the configuration is kept in.
+     *
+     * @return the compact configuration file under the Jenkins home.
+     */
+    private File getCompactFile() {
+        return new File(Jenkins.get().getRootDir(), getId() + ".bin");
+    }
+
+    /**
+     * Get the configuration in a readable format, with one field per line, for exports and diffs.
+     *
+     * @return JSONObject that contains every list of the configuration.
+     */
+    public JSONObject export() {
+        ScheduleSnapshot current = this.snapshot;
+        JSONObject json = new JSONObject();
+        json.put("timeRanges", JSONArray.fromObject(current.getTimeRanges()));
+        json.put("excludedDates", JSONArray.fromObject(current.getExcludedDates()));
+        json.put("blackoutWindows", JSONArray.fromObject(current.getBlackoutWindows()));
+        json.put("scheduleProfiles", JSONArray.fromObject(current.getScheduleProfiles()));
+        json.put("nodeSchedules", JSONArray.fromObject(current.getNodeSchedules()));
+        return json;
+    }
+
+    /**
+     * Writes the configuration file now if a change is waiting to be written.
+     */
+    public void flush() {
+        this.writeBehind.flush();
+    }
+
+    /**
+     * Writes the changes that are still waiting to be written before Jenkins shuts down.
+     */
+    @Terminator
+    public static void flushOnShutdown() {
+        for (WorkingHoursPlugin plugin : ExtensionList.lookup(WorkingHoursPlugin.class)) {
+            plugin.flush();
+        }
+    }
+
     @Override
     public Descriptor<WorkingHoursPlugin> getDescriptor() {
         return this;
@@ -25,17 +25,26 @@ package org.jenkinsci.plugins.workinghours;
 
 import hudson.ExtensionList;
 import org.jenkinsci.plugins.workinghours.actions.EnforceBuildScheduleAction;
-import org.jenkinsci.plugins.workinghours.model.ExcludedDate;
-import org.jenkinsci.plugins.workinghours.model.TimeRange;
+import org.jenkinsci.plugins.workinghours.schedule.ScheduleSnapshot;
+import org.jenkinsci.plugins.workinghours.schedule.ScheduleVerdictCache;
+import org.jenkinsci.plugins.workinghours.schedule.WeeklySchedule;
+import org.jenkinsci.plugins.workinghours.utils.TimeSource;
 import hudson.Extension;
+import hudson.Util;
 import hudson.model.Actionable;
+import hudson.model.Label;
 import hudson.model.Node;
 import hudson.model.Queue;
 import hudson.model.Queue.Task;
 import hudson.model.Run;
+import hudson.model.labels.LabelAtom;
 import hudson.model.queue.CauseOfBlockage;
 import hudson.model.queue.QueueTaskDispatcher;
-import java.util.Calendar;
+import jenkins.model.NodeListener;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.jenkinsci.plugins.workflow.job.WorkflowJob;
@@ -55,6 +64,39 @@ import org.jenkinsci.plugins.workflow.support.steps.ExecutorStepExecution;
 @Extension(optional = true)
 public class WorkingHoursQueueTaskDispatcher extends QueueTaskDispatcher {
 
+    /**
+     * The global verdict, only recomputed at schedule transitions or on configuration changes.
+     */
+    private final ScheduleVerdictCache verdictCache = new ScheduleVerdictCache();
+
+    /**
+     * The verdict of each schedule profile, by compiled schedule, so profiles
+     * allowing the same minutes share theirs. Cleared whenever a new snapshot is published.
+     */
+    private final Map<WeeklySchedule, ScheduleVerdictCache> profileVerdictCaches = new ConcurrentHashMap<>();
+
+    /**
+     * The schedule each node is restricted to, by node name, resolved once per
+     * configuration and label string of the node. Cleared whenever a new snapshot
+     * is published, and entries of deleted nodes are removed.
+     */
+    private final Map<String, NodeRestriction> nodeRestrictions = new ConcurrentHashMap<>();
+
+    /**
+     * The snapshot the profile verdicts and node restrictions were resolved for.
+     */
+    private volatile ScheduleSnapshot cachedSnapshot;
+
+    /**
+     * The plugin configuration, looked up once.
+     */
+    private volatile WorkingHoursPlugin config;
+
+    /**
+     * The cause given for every blocked item.
+     */
+    private final CauseOfBlockage offline = CauseOfBlockage.fromMessage(Messages._WorkingHoursQueueTaskDispatcher_Offline());
+
     /**
      * {@inheritDoc}
      * Determines whether the job has a EnforceScheduleJobProperty,
@@ -78,13 +120,25 @@ public class WorkingHoursQueueTaskDispatcher extends QueueTaskDispatcher {
         Task ownerTask = item.task.getOwnerTask();
         if (ownerTask instanceof WorkflowJob) {
             WorkflowJob workflowJob = (WorkflowJob) ownerTask;
-            Run workflowRun = ((ExecutorStepExecution.PlaceholderTask)item.task).run();
-            EnforceScheduleJobProperty prop = workflowJob.getProperty(EnforceScheduleJobProperty.class);
-            if (prop != null) {
-                if (!canRunNow(workflowRun, item)) {
+            EnforceScheduleJobProperty property = EnforcedJobCache.getProperty(workflowJob);
+            if (property != null) {
+                ScheduleSnapshot global = getConfig().getSnapshot();
+                ScheduleSnapshot snapshot = global.forProfile(property.getProfile());
+                long now = TimeSource.epochMinute();
+                // Items stay blocked until the schedule may change, so most
+                // maintenance passes are answered here.
+                if (BlockedItemCache.isBlocked(item, snapshot, now)) {
+                    return offline;
+                }
+                Run workflowRun = ((ExecutorStepExecution.PlaceholderTask)item.task).run();
+                ScheduleVerdictCache.Verdict verdict = getVerdictCache(global, snapshot).lookup(snapshot, now);
+                if (!canRunNow(verdict, workflowRun, item)) {
+                    BlockedItemCache.block(item, snapshot, now, verdict.getValidUntil(),
+                            workflowRun.getAction(EnforceBuildScheduleAction.class));
                     log(Level.INFO, "Blocking item %d", item.getId());
-                    return CauseOfBlockage.fromMessage(Messages._WorkingHoursQueueTaskDispatcher_Offline());
+                    return offline;
                 }
+                BlockedItemCache.unblock(item);
             }
         }
         return super.canRun(item);
@@ -92,12 +146,41 @@ public class WorkingHoursQueueTaskDispatcher extends QueueTaskDispatcher {
 
     /**
      * {@inheritDoc}
+     * Keeps nodes with a node schedule, by their name or one of their labels,
+     * from taking any item outside of that schedule's working hours.
      */
     @Override
     public CauseOfBlockage canTake(Node node, Queue.BuildableItem item) {
+        ScheduleSnapshot snapshot = getConfig().getSnapshot();
+        if (snapshot.getNodeSchedules().isEmpty()) {
+            return super.canTake(node, item);
+        }
+        NodeRestriction restriction = getRestriction(node, snapshot);
+        if (restriction.schedule != null
+                && !getVerdictCache(snapshot, restriction.schedule)
+                    .lookup(restriction.schedule, TimeSource.epochMinute()).isAllowed()) {
+            return restriction.offline;
+        }
         return super.canTake(node, item);
     }
 
+    private NodeRestriction getRestriction(Node node, ScheduleSnapshot snapshot) {
+        String nodeName = node.getNodeName();
+        String labelString = Util.fixNull(node.getLabelString());
+        forgetOlderSnapshots(snapshot);
+        NodeRestriction restriction = nodeRestrictions.get(nodeName);
+        if (restriction == null || restriction.snapshot != snapshot || !restriction.labelString.equals(labelString)) {
+            Set<String> labels = new HashSet<>();
+            for (LabelAtom atom : Label.parse(labelString)) {
+                labels.add(atom.getName());
+            }
+            restriction = new NodeRestriction(snapshot, labelString, snapshot.forNode(nodeName, labels),
+                    CauseOfBlockage.fromMessage(Messages._WorkingHoursQueueTaskDispatcher_NodeOffline(node.getDisplayName())));
+            nodeRestrictions.put(nodeName, restriction);
+        }
+        return restriction;
+    }
+
     /**
      * Determines if a queue item has been manually released.
      * @param action The enforce build schedule action.
@@ -117,27 +200,60 @@ public class WorkingHoursQueueTaskDispatcher extends QueueTaskDispatcher {
      */
     public boolean canRunNow(Actionable itemActionable,
             Queue.Item item) {
-        Calendar now = Calendar.getInstance();
+        return canRunNow(getConfig().getSnapshot(), itemActionable, item);
+    }
 
-        EnforceBuildScheduleAction action = itemActionable.getAction(EnforceBuildScheduleAction.class);
+    /**
+     * Determines whether a queue item can run at the current moment
+     * according to a snapshot of the configuration.
+     * @param snapshot The configuration to check against.
+     * @param itemActionable The item being checked.
+     * @param item The queue item to check.
+     * @return true if the item can run now; false otherwise.
+     */
+    public boolean canRunNow(ScheduleSnapshot snapshot, Actionable itemActionable,
+            Queue.Item item) {
+        return canRunNow(verdictCache.lookup(snapshot, TimeSource.epochMinute()), itemActionable, item);
+    }
 
-        WorkingHoursPlugin config = ExtensionList.lookup(WorkingHoursPlugin.class).get(0);
+    /**
+     * Get the verdict cache of a snapshot derived from the published one, for a profile or node.
+     * @param global The published snapshot.
+     * @param snapshot The snapshot to check against, global itself or derived from it.
+     * @return The cache to look the verdict up in.
+     */
+    private ScheduleVerdictCache getVerdictCache(ScheduleSnapshot global, ScheduleSnapshot snapshot) {
+        if (snapshot == global) {
+            return verdictCache;
+        }
+        forgetOlderSnapshots(global);
+        return profileVerdictCaches.computeIfAbsent(snapshot.getWeeklySchedule(), schedule -> new ScheduleVerdictCache());
+    }
 
-        // Check whether today should be excluded according to the excluded dates we set.
-        for (ExcludedDate excludedDate : config.getExcludedDates()) {
-            if(excludedDate.shouldExclude(now)){
-                return false;
-            }
+    private void forgetOlderSnapshots(ScheduleSnapshot global) {
+        if (cachedSnapshot != global) {
+            // Every entry would be resolved again anyway, and would keep the old snapshot alive until then.
+            profileVerdictCaches.clear();
+            nodeRestrictions.clear();
+            cachedSnapshot = global;
+        }
+    }
+
+    private boolean canRunNow(ScheduleVerdictCache.Verdict verdict, Actionable itemActionable,
+            Queue.Item item) {
+        EnforceBuildScheduleAction action = itemActionable.getAction(EnforceBuildScheduleAction.class);
+
+        // Check whether now should be excluded according to the excluded dates and blackout windows we set.
+        if (verdict.isExcluded()) {
+            return false;
         }
 
-        for (TimeRange allowableTime : config.getBuildTimeMatrix()) {
-            if (allowableTime.includesTime(now)) {
-                if (action != null) {
-                    // Mark the action as released for book-keeping
-                    action.markReleased();
-                }
-                return true;
+        if (verdict.isAllowed()) {
+            if (action != null) {
+                // Mark the action as released for book-keeping
+                action.markReleased();
             }
+            return true;
         }
         if (action == null) {
             action = new EnforceBuildScheduleAction();
@@ -150,6 +266,51 @@ public class WorkingHoursQueueTaskDispatcher extends QueueTaskDispatcher {
         return false;
     }
 
+    private WorkingHoursPlugin getConfig() {
+        WorkingHoursPlugin plugin = this.config;
+        if (plugin == null) {
+            plugin = ExtensionList.lookup(WorkingHoursPlugin.class).get(0);
+            this.config = plugin;
+        }
+        return plugin;
+    }
+
+    /**
+     * The schedule a node was found to follow, for a configuration and label string.
+     */
+    private static final class NodeRestriction {
+        private final ScheduleSnapshot snapshot;
+        private final String labelString;
+        private final ScheduleSnapshot schedule;
+        private final CauseOfBlockage offline;
+
+        NodeRestriction(ScheduleSnapshot snapshot, String labelString, ScheduleSnapshot schedule,
+                        CauseOfBlockage offline) {
+            this.snapshot = snapshot;
+            this.labelString = labelString;
+            this.schedule = schedule;
+            this.offline = offline;
+        }
+    }
+
+    /**
+     * Forgets the restriction of a node once it is deleted, as cloud agents
+     * come and go under new names.
+     */
+    @Extension(optional = true)
+    public static class NodeDeletionListener extends NodeListener {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void onDeleted(Node node) {
+            for (WorkingHoursQueueTaskDispatcher dispatcher : ExtensionList.lookup(WorkingHoursQueueTaskDispatcher.class)) {
+                dispatcher.nodeRestrictions.remove(node.getNodeName());
+            }
+        }
+    }
+
     private static void log(Level level, String format, Object... args) {
         getLogger().log(level, String.format(format, args));
     }
@@ -8,20 +8,35 @@ import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
+import org.jenkinsci.plugins.workinghours.model.BlackoutWindow;
 import org.jenkinsci.plugins.workinghours.model.ExcludedDate;
+import org.jenkinsci.plugins.workinghours.model.NodeSchedule;
+import org.jenkinsci.plugins.workinghours.model.ScheduleProfile;
 import org.jenkinsci.plugins.workinghours.model.TimeRange;
 import org.jenkinsci.plugins.workinghours.presets.PresetManager;
 import org.kohsuke.stapler.HttpResponse;
 import org.kohsuke.stapler.StaplerRequest;
 import org.kohsuke.stapler.json.JsonHttpResponse;
 
+import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class WorkingHoursUI {
+    private static final String FIELD_ID = "id";
+    private static final String OP_ADD = "add";
+    private static final String OP_UPDATE = "update";
+    private static final String OP_DELETE = "delete";
+
     private WorkingHoursPlugin config;
 
+    /*The serialized lists served to GET requests.*/
+    private final CachedListResponse timeRangesResponse = new CachedListResponse();
+    private final CachedListResponse excludedDatesResponse = new CachedListResponse();
+
     public WorkingHoursUI() {
     }
 
@@ -48,17 +63,55 @@ public class WorkingHoursUI {
             }
         }
 
-        // TODO: 28/5/2019 use request method to classify manipulations
+        /*Manipulations only over POST, which also has Jenkins check the crumb, so a link cannot change anything.*/
+        if (isManipulation(params.get(0)) && !"POST".equals(request.getMethod())) {
+            return HttpResponses.status(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+        }
+        /*A change that cannot be saved would be lost at the next restart, so it is refused rather than reported as done.*/
+        if (isManipulation(params.get(0)) && config.isReadOnly()) {
+            return HttpResponses.errorJSON("The working hours configuration file could not be read, "
+                + "so changes cannot be saved until it is repaired or removed, see the Jenkins log");
+        }
 
         switch (params.get(0)) {
+            case "excluded-dates":
+                return excludedDatesResponse.respond(config.getExcludedDates());
             case "list-excluded-dates":
                 return listExcludedDate(request);
             case "set-excluded-dates":
                 return setExcludedDates(request);
+            case "add-excluded-date":
+                return addExcludedDate(request);
+            case "update-excluded-date":
+                return updateExcludedDate(request, params);
+            case "delete-excluded-date":
+                return deleteExcludedDate(params);
+            case "time-ranges":
+                return timeRangesResponse.respond(config.getBuildTimeMatrix());
             case "list-time-ranges":
                 return listTimeRanges(request);
             case "set-time-ranges":
                 return setTimeRanges(request);
+            case "add-time-range":
+                return addTimeRange(request);
+            case "update-time-range":
+                return updateTimeRange(request, params);
+            case "delete-time-range":
+                return deleteTimeRange(params);
+            case "list-blackout-windows":
+                return listBlackoutWindows(request);
+            case "set-blackout-windows":
+                return setBlackoutWindows(request);
+            case "list-schedule-profiles":
+                return listScheduleProfiles(request);
+            case "set-schedule-profiles":
+                return setScheduleProfiles(request);
+            case "list-node-schedules":
+                return listNodeSchedules(request);
+            case "set-node-schedules":
+                return setNodeSchedules(request);
+            case "export":
+                return exportConfig();
             case "regions":
                 /*If there are more than 1 param, the second should be the region's code.*/
                 if (params.size() > 1) {
@@ -73,6 +126,32 @@ public class WorkingHoursUI {
 
     }
 
+    /**
+     * Whether a route changes the configuration.
+     *
+     * @param route The first param in the url.
+     * @return true for the set, add, update and delete routes.
+     */
+    private static boolean isManipulation(String route) {
+        return route.startsWith("set-") || route.startsWith("add-")
+            || route.startsWith("update-") || route.startsWith("delete-");
+    }
+
+    /**
+     * Handler for downloading the whole configuration as indented JSON, which is easy to read,
+     * to diff and to keep under version control, unlike the compact file it is stored in.
+     *
+     * @return {@link HttpResponse} Response with the configuration as an attachment.
+     */
+    private HttpResponse exportConfig() {
+        final String body = config.export().toString(2);
+        return (req, rsp, node) -> {
+            rsp.setContentType("application/json;charset=UTF-8");
+            rsp.setHeader("Content-Disposition", "attachment; filename=working-hours.json");
+            rsp.getWriter().write(body);
+        };
+    }
+
     /**
      * Stapler's handler for getting the list of region's code.
      *
@@ -123,6 +202,151 @@ public class WorkingHoursUI {
         return HttpResponses.okJSON(serializeTimeRanges());
     }
 
+    /**
+     * Handler for adding a single time range, which gets a new id.
+     *
+     * @param request The http request passed in.
+     * @return {@link HttpResponse} Response with the added time range.
+     */
+    private HttpResponse addTimeRange(StaplerRequest request) {
+        JSONObject timeRangeJson = getRequestBody(request).getJSONObject("data");
+        timeRangeJson.remove(FIELD_ID);
+        ValidationResult result = TimeRange.validateTimeRange(timeRangeJson);
+        if (!result.isValid()) {
+            return HttpResponses.errorJSON(result.toErrorMessage());
+        }
+
+        TimeRange timeRange = new TimeRange(timeRangeJson);
+        config.addTimeRange(timeRange);
+
+        return HttpResponses.okJSON(serializeDelta(OP_ADD, JSONObject.fromObject(timeRange)));
+    }
+
+    /**
+     * Handler for replacing a single time range.
+     *
+     * @param request The http request passed in.
+     * @param params  The params in the url, like ['update-time-range','id']
+     * @return {@link HttpResponse} Response with the updated time range.
+     */
+    private HttpResponse updateTimeRange(StaplerRequest request, List<String> params) {
+        if (params.size() < 2) {
+            return unknownId();
+        }
+        JSONObject timeRangeJson = getRequestBody(request).getJSONObject("data");
+        timeRangeJson.put(FIELD_ID, params.get(1));
+        ValidationResult result = TimeRange.validateTimeRange(timeRangeJson);
+        if (!result.isValid()) {
+            return HttpResponses.errorJSON(result.toErrorMessage());
+        }
+
+        TimeRange timeRange = new TimeRange(timeRangeJson);
+        if (!config.updateTimeRange(timeRange)) {
+            return unknownId();
+        }
+
+        return HttpResponses.okJSON(serializeDelta(OP_UPDATE, JSONObject.fromObject(timeRange)));
+    }
+
+    /**
+     * Handler for deleting a single time range.
+     *
+     * @param params The params in the url, like ['delete-time-range','id']
+     * @return {@link HttpResponse} Response with the id of the deleted time range.
+     */
+    private HttpResponse deleteTimeRange(List<String> params) {
+        if (params.size() < 2 || !config.deleteTimeRange(params.get(1))) {
+            return unknownId();
+        }
+
+        return HttpResponses.okJSON(serializeDelta(OP_DELETE, idOnly(params.get(1))));
+    }
+
+    /**
+     * Handler for adding a single excluded date, which gets a new id.
+     *
+     * @param request The http request passed in.
+     * @return {@link HttpResponse} Response with the added excluded date.
+     */
+    private HttpResponse addExcludedDate(StaplerRequest request) {
+        JSONObject excludedDateJson = getRequestBody(request).getJSONObject("data");
+        excludedDateJson.remove(FIELD_ID);
+        ValidationResult result = ExcludedDate.validateExcludedDate(excludedDateJson);
+        if (!result.isValid()) {
+            return HttpResponses.errorJSON(result.toErrorMessage());
+        }
+
+        ExcludedDate excludedDate = new ExcludedDate(excludedDateJson);
+        config.addExcludedDate(excludedDate);
+
+        return HttpResponses.okJSON(serializeDelta(OP_ADD, JSONObject.fromObject(excludedDate)));
+    }
+
+    /**
+     * Handler for replacing a single excluded date.
+     *
+     * @param request The http request passed in.
+     * @param params  The params in the url, like ['update-excluded-date','id']
+     * @return {@link HttpResponse} Response with the updated excluded date.
+     */
+    private HttpResponse updateExcludedDate(StaplerRequest request, List<String> params) {
+        if (params.size() < 2) {
+            return unknownId();
+        }
+        JSONObject excludedDateJson = getRequestBody(request).getJSONObject("data");
+        excludedDateJson.put(FIELD_ID, params.get(1));
+        ValidationResult result = ExcludedDate.validateExcludedDate(excludedDateJson);
+        if (!result.isValid()) {
+            return HttpResponses.errorJSON(result.toErrorMessage());
+        }
+
+        ExcludedDate excludedDate = new ExcludedDate(excludedDateJson);
+        if (!config.updateExcludedDate(excludedDate)) {
+            return unknownId();
+        }
+
+        return HttpResponses.okJSON(serializeDelta(OP_UPDATE, JSONObject.fromObject(excludedDate)));
+    }
+
+    /**
+     * Handler for deleting a single excluded date.
+     *
+     * @param params The params in the url, like ['delete-excluded-date','id']
+     * @return {@link HttpResponse} Response with the id of the deleted excluded date.
+     */
+    private HttpResponse deleteExcludedDate(List<String> params) {
+        if (params.size() < 2 || !config.deleteExcludedDate(params.get(1))) {
+            return unknownId();
+        }
+
+        return HttpResponses.okJSON(serializeDelta(OP_DELETE, idOnly(params.get(1))));
+    }
+
+    private HttpResponse unknownId() {
+        return HttpResponses.errorJSON(new ValidationResult(false, FIELD_ID, "is unknown").toErrorMessage());
+    }
+
+    private static JSONObject idOnly(String id) {
+        JSONObject data = new JSONObject();
+        data.put(FIELD_ID, id);
+        return data;
+    }
+
+    /**
+     * Serialize a single change, so the client can apply it to its list
+     * without fetching the whole list again.
+     *
+     * @param op   The kind of change, add, update or delete.
+     * @param data The changed entry, or only its id for a deletion.
+     * @return JSONObject that contains the change.
+     */
+    private static JSONObject serializeDelta(String op, JSONObject data) {
+        JSONObject delta = new JSONObject();
+        delta.put("op", op);
+        delta.put("data", data);
+        return delta;
+    }
+
     private HttpResponse setExcludedDates(StaplerRequest request) {
         List<ExcludedDate> newExcludedDates = new ArrayList();
 
@@ -142,6 +366,140 @@ public class WorkingHoursUI {
         return HttpResponses.okJSON(serializeExcludedDates());
     }
 
+    /**
+     * Handler for return stored blackout windows.
+     *
+     * @param request The http request passed in.
+     * @return {@link HttpResponse} Response with blackout windows.
+     */
+    private HttpResponse listBlackoutWindows(StaplerRequest request) {
+        return HttpResponses.okJSON(serializeBlackoutWindows());
+    }
+
+    /**
+     * Handler for replacing the blackout windows with the ones submitted.
+     *
+     * @param request The http request passed in.
+     * @return {@link HttpResponse} Response with the stored blackout windows.
+     */
+    private HttpResponse setBlackoutWindows(StaplerRequest request) {
+        List<BlackoutWindow> newBlackoutWindows = new ArrayList<>();
+
+        JSONArray blackoutWindowsJson = (JSONArray) getRequestBody(request).get("data");
+
+        for (int i = 0; i < blackoutWindowsJson.size(); i++) {
+            ValidationResult result = BlackoutWindow.validateBlackoutWindow((JSONObject) blackoutWindowsJson.get(i));
+            if (!result.isValid()) {
+                return HttpResponses.errorJSON(result.toErrorMessage());
+            } else {
+                newBlackoutWindows.add(new BlackoutWindow((JSONObject) blackoutWindowsJson.get(i)));
+            }
+        }
+
+        config.setBlackoutWindows(newBlackoutWindows);
+
+        return HttpResponses.okJSON(serializeBlackoutWindows());
+    }
+
+    /**
+     * Handler for return stored schedule profiles.
+     *
+     * @param request The http request passed in.
+     * @return {@link HttpResponse} Response with schedule profiles.
+     */
+    private HttpResponse listScheduleProfiles(StaplerRequest request) {
+        return HttpResponses.okJSON(serializeScheduleProfiles());
+    }
+
+    private HttpResponse setScheduleProfiles(StaplerRequest request) {
+        List<ScheduleProfile> newScheduleProfiles = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+
+        JSONArray scheduleProfilesJson = (JSONArray) getRequestBody(request).get("data");
+
+        for (int i = 0; i < scheduleProfilesJson.size(); i++) {
+            ValidationResult result = ScheduleProfile.validateScheduleProfile((JSONObject) scheduleProfilesJson.get(i));
+            if (!result.isValid()) {
+                return HttpResponses.errorJSON(result.toErrorMessage());
+            }
+            ScheduleProfile scheduleProfile = new ScheduleProfile((JSONObject) scheduleProfilesJson.get(i));
+            if (!names.add(scheduleProfile.getName())) {
+                return HttpResponses.errorJSON(new ValidationResult(false, "name", "is already used").toErrorMessage());
+            }
+            newScheduleProfiles.add(scheduleProfile);
+        }
+        /*Node schedules would silently fall back to the global time ranges.*/
+        for (NodeSchedule nodeSchedule : config.getNodeSchedules()) {
+            if (nodeSchedule.getProfile() != null && !names.contains(nodeSchedule.getProfile())) {
+                return HttpResponses.errorJSON(new ValidationResult(false, "name",
+                    "is used by the node schedule of " + nodeSchedule.getLabel()).toErrorMessage());
+            }
+        }
+
+        config.setScheduleProfiles(newScheduleProfiles);
+
+        return HttpResponses.okJSON(serializeScheduleProfiles());
+    }
+
+    /**
+     * Handler for return stored node schedules.
+     *
+     * @param request The http request passed in.
+     * @return {@link HttpResponse} Response with node schedules.
+     */
+    private HttpResponse listNodeSchedules(StaplerRequest request) {
+        return HttpResponses.okJSON(serializeNodeSchedules());
+    }
+
+    private HttpResponse setNodeSchedules(StaplerRequest request) {
+        List<NodeSchedule> newNodeSchedules = new ArrayList<>();
+
+        JSONArray nodeSchedulesJson = (JSONArray) getRequestBody(request).get("data");
+
+        for (int i = 0; i < nodeSchedulesJson.size(); i++) {
+            ValidationResult result = NodeSchedule.validateNodeSchedule((JSONObject) nodeSchedulesJson.get(i));
+            if (!result.isValid()) {
+                return HttpResponses.errorJSON(result.toErrorMessage());
+            }
+            NodeSchedule nodeSchedule = new NodeSchedule((JSONObject) nodeSchedulesJson.get(i));
+            if (nodeSchedule.getProfile() != null && !config.getSnapshot().hasProfile(nodeSchedule.getProfile())) {
+                return HttpResponses.errorJSON(new ValidationResult(false, "profile", "is not a schedule profile").toErrorMessage());
+            }
+            newNodeSchedules.add(nodeSchedule);
+        }
+
+        config.setNodeSchedules(newNodeSchedules);
+
+        return HttpResponses.okJSON(serializeNodeSchedules());
+    }
+
+    /**
+     * Serialize model node schedules to JSONObejct
+     *
+     * @return JSONArray that contains a list of serialized node schedules.
+     */
+    private JSONArray serializeNodeSchedules() {
+        return JSONArray.fromObject(config.getNodeSchedules());
+    }
+
+    /**
+     * Serialize model schedule profiles to JSONObejct
+     *
+     * @return JSONArray that contains a list of serialized schedule profiles.
+     */
+    private JSONArray serializeScheduleProfiles() {
+        return JSONArray.fromObject(config.getScheduleProfiles());
+    }
+
+    /**
+     * Serialize model blackout windows to JSONObejct
+     *
+     * @return JSONArray that contains a list of serialized blackout windows.
+     */
+    private JSONArray serializeBlackoutWindows() {
+        return JSONArray.fromObject(config.getBlackoutWindows());
+    }
+
     /**
      * Serialize model excluded dates to JSONObejct
      *
@@ -0,0 +1,94 @@
+package org.jenkinsci.plugins.workinghours;
+
+import jenkins.util.Timer;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Coalesces the writes of a configuration file, so a burst of changes, such as a script
+ * or the UI editing entries one by one, is written once after a short delay rather than
+ * once per change. The changes are applied in memory right away; only the write lags behind.
+ * <p>
+ * At most one write is pending at a time. A change made while a write is running
+ * schedules the next one, so the last change is never lost. {@link #flush} writes a
+ * pending change right away, for shutdown.
+ */
+public final class WriteBehind {
+
+    private static final Logger LOGGER = Logger.getLogger(WriteBehind.class.getName());
+
+    /**
+     * How long to wait for more changes before writing, in milliseconds.
+     */
+    static final long DELAY = Math.max(0, Long.getLong(WriteBehind.class.getName() + ".delay", 500));
+
+    private final Runnable write;
+    private final long delay;
+    private final Supplier<ScheduledExecutorService> executor;
+
+    /*The scheduled write, or null if nothing is waiting to be written.*/
+    private ScheduledFuture<?> pending;
+
+    /**
+     * Constructs a write-behind that writes {@link #DELAY} milliseconds after a change, on the Jenkins {@link Timer}.
+     *
+     * @param write Writes the file. It has to write the state at the time it runs, atomically.
+     */
+    public WriteBehind(Runnable write) {
+        this(write, DELAY, Timer::get);
+    }
+
+    /**
+     * Constructs a write-behind.
+     *
+     * @param write    Writes the file. It has to write the state at the time it runs, atomically.
+     * @param delay    How long to wait for more changes before writing, in milliseconds.
+     * @param executor Gives the executor the writes are scheduled on, when the first one is.
+     */
+    public WriteBehind(Runnable write, long delay, Supplier<ScheduledExecutorService> executor) {
+        this.write = write;
+        this.delay = delay;
+        this.executor = executor;
+    }
+
+    /**
+     * Schedule a write, unless one is pending already.
+     */
+    public synchronized void request() {
+        if (pending == null) {
+            pending = executor.get().schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Whether a change is waiting to be written.
+     *
+     * @return true if a write is pending.
+     */
+    public synchronized boolean isPending() {
+        return pending != null;
+    }
+
+    /**
+     * Write a pending change right away, instead of when it is due.
+     */
+    public void flush() {
+        synchronized (this) {
+            if (pending == null) {
+                return;
+            }
+            pending.cancel(false);
+            pending = null;
+        }
+        try {
+            write.run();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not write the configuration", e);
+        }
+    }
+}
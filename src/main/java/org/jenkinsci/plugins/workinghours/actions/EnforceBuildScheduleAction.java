@@ -26,7 +26,7 @@ package org.jenkinsci.plugins.workinghours.actions;
 import hudson.model.InvisibleAction;
 import hudson.model.Queue;
 
-import java.util.Date;
+import org.jenkinsci.plugins.workinghours.utils.TimeSource;
 
 /**
  * Action attached to a project or build to manage enforcing the build schedule.
@@ -68,7 +68,7 @@ public class EnforceBuildScheduleAction extends InvisibleAction {
      */
     public void markReleased() {
         if (releasedTimeStamp == 0) {
-            releasedTimeStamp = new Date().getTime();
+            releasedTimeStamp = TimeSource.currentTimeMillis();
         }
     }
     
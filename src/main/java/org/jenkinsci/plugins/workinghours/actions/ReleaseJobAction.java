@@ -29,7 +29,7 @@ import java.util.Collection;
 import java.util.Collections;
 import jenkins.model.TransientActionFactory;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
-import org.jenkinsci.plugins.workinghours.EnforceScheduleJobProperty;
+import org.jenkinsci.plugins.workinghours.EnforcedJobCache;
 import org.kohsuke.stapler.interceptor.RequirePOST;
 
 /**
@@ -113,9 +113,7 @@ public class ReleaseJobAction implements Action {
          */
         @Override
         public Collection<? extends Action> createFor(WorkflowRun target) {
-            EnforceScheduleJobProperty prop = target.getParent().getProperty(EnforceScheduleJobProperty.class);
-
-            if (prop != null && target.isBuilding()) {
+            if (target.isBuilding() && EnforcedJobCache.isEnforced(target.getParent())) {
                 return Collections.singleton(new ReleaseJobAction(target));
             }
             return Collections.emptySet();
@@ -0,0 +1,144 @@
+package org.jenkinsci.plugins.workinghours.model;
+
+import net.sf.json.JSONObject;
+import org.jenkinsci.plugins.workinghours.ValidationResult;
+import org.jenkinsci.plugins.workinghours.utils.TimeSource;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * A one-off span of time in which no build may start, such as a maintenance window.
+ * Unlike an {@link ExcludedDate} it does not have to cover whole days.
+ * <p>
+ * The start and end are local date times, formatted like {@code 2019-07-06T02:00}.
+ * The start is inclusive and the end exclusive.
+ */
+public class BlackoutWindow {
+
+    private static final String FIELD_NAME = "name";
+    private static final String FIELD_START = "start";
+    private static final String FIELD_END = "end";
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    public static ValidationResult validateBlackoutWindow(JSONObject targetJson) {
+        if (!targetJson.containsKey(FIELD_NAME)) {
+            return new ValidationResult(false, FIELD_NAME, "is required");
+        }
+
+        LocalDateTime start;
+        LocalDateTime end;
+        try {
+            start = parse(targetJson, FIELD_START);
+        } catch (DateTimeParseException e) {
+            return new ValidationResult(false, FIELD_START, "is not a valid date time");
+        }
+        if (start == null) {
+            return new ValidationResult(false, FIELD_START, "is required");
+        }
+        try {
+            end = parse(targetJson, FIELD_END);
+        } catch (DateTimeParseException e) {
+            return new ValidationResult(false, FIELD_END, "is not a valid date time");
+        }
+        if (end == null) {
+            return new ValidationResult(false, FIELD_END, "is required");
+        } else if (!end.isAfter(start)) {
+            return new ValidationResult(false, FIELD_END, "should be after start");
+        }
+
+        return ValidationResult.getSuccessValidation();
+    }
+
+    private static LocalDateTime parse(JSONObject json, String field) {
+        return json.containsKey(field) ? LocalDateTime.parse(json.getString(field), FORMATTER) : null;
+    }
+
+    /**
+     * Constructs a BlackoutWindow object.
+     *
+     * @param name  The name of the window.
+     * @param start The start of the window, inclusive.
+     * @param end   The end of the window, exclusive.
+     */
+    public BlackoutWindow(String name, LocalDateTime start, LocalDateTime end) {
+        this.name = name;
+        this.start = start.format(FORMATTER);
+        this.end = end.format(FORMATTER);
+        precompute();
+    }
+
+    /**
+     * Constructs a BlackoutWindow object using JSON.
+     *
+     * @param sourceJSON The source json data that contains the fields.
+     */
+    public BlackoutWindow(JSONObject sourceJSON) {
+        this(sourceJSON.getString(FIELD_NAME), parse(sourceJSON, FIELD_START), parse(sourceJSON, FIELD_END));
+    }
+
+    /**
+     * Restores the precomputed fields after being read from XML.
+     *
+     * @return This blackout window.
+     */
+    private Object readResolve() {
+        precompute();
+        return this;
+    }
+
+    private void precompute() {
+        this.startMinute = toEpochMinute(LocalDateTime.parse(this.start, FORMATTER));
+        this.endMinute = toEpochMinute(LocalDateTime.parse(this.end, FORMATTER));
+    }
+
+    private static long toEpochMinute(LocalDateTime dateTime) {
+        return dateTime.toLocalDate().toEpochDay() * TimeSource.MINUTES_PER_DAY
+            + dateTime.getHour() * 60 + dateTime.getMinute();
+    }
+
+    /*The name of the window*/
+    private String name;
+
+    /*The start of the window, as a local date time*/
+    private String start;
+
+    /*The end of the window, as a local date time*/
+    private String end;
+
+    /*The start and end as local epoch minutes*/
+    private transient long startMinute;
+    private transient long endMinute;
+
+    public String getName() {
+        return name;
+    }
+
+    public String getStart() {
+        return start;
+    }
+
+    public String getEnd() {
+        return end;
+    }
+
+    /**
+     * Get the start of the window.
+     *
+     * @return The local epoch minute at which the window starts.
+     */
+    public long getStartMinute() {
+        return startMinute;
+    }
+
+    /**
+     * Get the end of the window.
+     *
+     * @return The local epoch minute at which the window is over.
+     */
+    public long getEndMinute() {
+        return endMinute;
+    }
+}
@@ -23,16 +23,20 @@
  */
 package org.jenkinsci.plugins.workinghours.model;
 
-import de.jollyday.Holiday;
 import net.sf.json.JSONObject;
 import org.jenkinsci.plugins.workinghours.ValidationResult;
-import org.jenkinsci.plugins.workinghours.utils.DynamicDateUtil;
-import org.jenkinsci.plugins.workinghours.utils.JollydayUtil;
+import org.jenkinsci.plugins.workinghours.presets.PresetManager;
+import org.jenkinsci.plugins.workinghours.utils.DateTimeUtility;
+import org.jenkinsci.plugins.workinghours.utils.NthWeekdayResolver;
 import org.kohsuke.stapler.DataBoundConstructor;
 
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Calendar;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Encapsulates an excluded date along with name for UI purposes.
@@ -41,6 +45,8 @@ import java.util.Calendar;
  */
 public class ExcludedDate {
 
+    private static final Logger LOGGER = Logger.getLogger(ExcludedDate.class.getName());
+
     private static final String FIELD_UTC_OFFSET = "utcOffset";
     private static final String FIELD_TIMEZONE = "timezone";
     private static final String FIELD_TYPE = "type";
@@ -54,6 +60,7 @@ public class ExcludedDate {
     private static final String FIELD_REPEAT_COUNT = "repeatCount";
     private static final String FIELD_REPEAT_PERIOD = "repeatPeriod";
     private static final String FIELD_REPEAT_INTERVAL = "repeatInterval";
+    private static final String FIELD_ID = "id";
 
     /*The required fields of the class*/
     private static final String[] REQUIRED_FIELDS = {FIELD_UTC_OFFSET,
@@ -75,6 +82,8 @@ public class ExcludedDate {
      */
     @DataBoundConstructor
     public ExcludedDate(JSONObject sourceJSON) {
+        String sourceId = sourceJSON.optString(FIELD_ID, null);
+        this.id = sourceId == null || sourceId.isEmpty() ? UUID.randomUUID().toString() : sourceId;
         this.utcOffset = sourceJSON.getInt(FIELD_UTC_OFFSET);
         this.timezone = sourceJSON.getString(FIELD_TIMEZONE);
         this.startDate = new Date(sourceJSON.getJSONObject(FIELD_START_DATE), false);
@@ -87,16 +96,86 @@ public class ExcludedDate {
             this.holidayRegion = sourceJSON.getString(FIELD_HOLIDAY_REGION);
         }
         this.name = sourceJSON.getString(FIELD_NAME);
+        this.noEnd = sourceJSON.getBoolean(FIELD_NO_END);
         this.repeat = sourceJSON.getBoolean(FIELD_REPEAT);
         this.repeatCount = sourceJSON.getInt(FIELD_REPEAT_COUNT);
         this.repeatPeriod = RepeatPeriod.valueOf(sourceJSON.getInt(FIELD_REPEAT_PERIOD));
         this.repeatInterval = sourceJSON.getInt(FIELD_REPEAT_INTERVAL);
+        precompute();
+    }
+
+    /**
+     * Constructs an ExcludedDate object from all of its fields, such as when read back from a file.
+     *
+     * @param id             The id of the excluded date.
+     * @param name           The display name.
+     * @param type           Whether it is a custom date or a holiday.
+     * @param utcOffset      Minutes offset to the UTC time.
+     * @param timezone       Name of the selected timezone.
+     * @param startDate      The start date.
+     * @param endDate        The end date of the repeat rule, or null.
+     * @param noEnd          Whether repeating does not end.
+     * @param repeat         Whether the date repeats.
+     * @param repeatCount    How many times it repeats.
+     * @param repeatPeriod   How the date repeats.
+     * @param repeatInterval Every how many periods the date repeats.
+     * @param holidayRegion  The region code of a holiday, or null.
+     * @param holidayId      The key of a holiday, or null.
+     */
+    public ExcludedDate(String id, String name, DateType type, int utcOffset, String timezone,
+                        Date startDate, Date endDate, boolean noEnd, boolean repeat, int repeatCount,
+                        RepeatPeriod repeatPeriod, int repeatInterval, String holidayRegion, String holidayId) {
+        this.id = id;
+        this.name = name;
+        this.type = type;
+        this.utcOffset = utcOffset;
+        this.timezone = timezone;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.noEnd = noEnd;
+        this.repeat = repeat;
+        this.repeatCount = repeatCount;
+        this.repeatPeriod = repeatPeriod;
+        this.repeatInterval = repeatInterval;
+        this.holidayRegion = holidayRegion;
+        this.holidayId = holidayId;
+        precompute();
     }
 
     private ExcludedDate() {
 
     }
 
+    /**
+     * Restores the precomputed fields after being read from XML, and gives dates saved
+     * before they had ids one.
+     *
+     * @return This excluded date.
+     */
+    private Object readResolve() {
+        if (this.id == null) {
+            this.id = UUID.randomUUID().toString();
+        }
+        precompute();
+        return this;
+    }
+
+    /*Derives the fields used by excludes(int) from the configured ones.
+    A date that cannot be read only disables this excluded date, not the whole configuration.*/
+    private void precompute() {
+        this.holidayMemo = NO_HOLIDAY_MEMO;
+        this.recurrence = null;
+        if (this.startDate == null || this.startDate.getDate() == null || this.isHoliday()) {
+            return;
+        }
+        try {
+            this.recurrence = Recurrence.of(this, this.repeatPeriod);
+        } catch (DateTimeException e) {
+            LOGGER.log(Level.WARNING, "Ignoring excluded date " + this.id + " (" + this.name
+                + "), its dates cannot be read", e);
+        }
+    }
+
     public static ValidationResult validateExcludedDate(JSONObject targetJson) {
         for (String requiredField : REQUIRED_FIELDS) {
             if (!targetJson.containsKey(requiredField)) {
@@ -118,7 +197,7 @@ public class ExcludedDate {
         if (targetJson.containsKey(FIELD_END_DATE)) {
             final ValidationResult endDateValidationResult = Date.validateDate(targetJson.getJSONObject(FIELD_END_DATE), true);
             if (!endDateValidationResult.isValid()) {
-                return startDateValidationResult;
+                return endDateValidationResult;
             }
         }
 
@@ -132,43 +211,57 @@ public class ExcludedDate {
      * @return {@link Boolean} Whether should be excluded.
      */
     public Boolean shouldExclude(Calendar date) {
-
-        LocalDate checkTime = LocalDate.of(
+        return excludes(DateTimeUtility.toEpochDay(
             date.get(Calendar.YEAR),
             date.get(Calendar.MONTH) + 1,
-            date.get(Calendar.DAY_OF_MONTH));
+            date.get(Calendar.DAY_OF_MONTH)));
+    }
 
+    /**
+     * Judge whether a day should be excluded according to this excluded date item,
+     * without creating any objects, apart from resolving a holiday once per year.
+     *
+     * @param epochDay The day to check, as an epoch day.
+     * @return Whether should be excluded.
+     */
+    public boolean excludes(int epochDay) {
         if (this.isHoliday()) {
             /*Judge by holiday*/
-            Holiday holidayThisYear = JollydayUtil.getHolidayThisYear(this.getHolidayRegion(), this.getHolidayId());
-
-            return checkTime.equals(LocalDate.of(
-                holidayThisYear.getDate().getYear(),
-                holidayThisYear.getDate().getMonthOfYear() + 1,
-                holidayThisYear.getDate().getDayOfMonth()));
-        } else if (this.startDate.isDynamic()) {
-            /*Judge by dynamic date */
-            final Date startDate = this.getStartDate();
-            switch (this.repeatPeriod) {
-                case REPEAT_BY_WEEK:
-                    return checkTime.getDayOfWeek().getValue() == startDate.getDynamicWeekday();
-                case REPEAT_BY_MONTH:
-                    return DynamicDateUtil.nextOccurrenceByMonth(startDate.getDynamicWeek(), startDate.getDynamicWeekday(), checkTime).isEqual(checkTime);
-                case REPEAT_BY_YEAR:
-                    return DynamicDateUtil.nextOccurrenceByYear(startDate.getDynamicMonth(), startDate.getDynamicWeek(), startDate.getDynamicWeekday(), checkTime).isEqual(checkTime);
-                default:
-                    return false;
-            }
-        } else {
-            /*Judge by static date */
-            return this.getStartDate().getLocalDate().isEqual(checkTime);
+            return holidayEpochDay(DateTimeUtility.yearOf(epochDay)) == epochDay;
         }
+        /*Judge by static or dynamic date, and how it repeats*/
+        return this.recurrence != null && this.recurrence.contains(epochDay);
+    }
+
+    /**
+     * Get the days on which this excluded date occurs.
+     *
+     * @return {@link Recurrence} The occurrences, or null for a holiday.
+     */
+    public Recurrence getRecurrence() {
+        return recurrence;
+    }
+
+    /*Epoch day of the holiday in a year, or PresetManager.NO_HOLIDAY if it does not occur that year.*/
+    private int holidayEpochDay(int year) {
+        long memo = this.holidayMemo;
+        if (memo != NO_HOLIDAY_MEMO && (int) (memo >> 32) == year) {
+            return (int) memo;
+        }
+        int epochDay = PresetManager.getInstance().getHolidayEpochDay(this.getHolidayRegion(), this.getHolidayId(), year);
+        this.holidayMemo = (long) year << 32 | (epochDay & 0xFFFFFFFFL);
+        return epochDay;
     }
 
     private boolean isHoliday() {
         return this.type == DateType.TYPE_HOLIDAY;
     }
 
+    /**
+     * The stable id of the excluded date, to update or delete it by.
+     */
+    private String id;
+
     /**
      * Minutes offset to the UTC time, indicates the base timezone of the excluded date.
      * Default to UTC(UTC+0).
@@ -232,6 +325,18 @@ public class ExcludedDate {
 
     private int repeatInterval = 1;
 
+    private static final long NO_HOLIDAY_MEMO = Long.MIN_VALUE;
+
+    /*The days on which a custom date occurs.*/
+    private transient Recurrence recurrence;
+
+    /*The year shifted left by 32 bits, with the epoch day of the holiday in that year in the lower bits.*/
+    private transient volatile long holidayMemo = NO_HOLIDAY_MEMO;
+
+    public String getId() {
+        return id;
+    }
+
     public int getUtcOffset() {
         return utcOffset;
     }
@@ -268,6 +373,15 @@ public class ExcludedDate {
         return repeatPeriod.getValue();
     }
 
+    /**
+     * Whether a repeat period is set, which {@link #getRepeatPeriod()} requires.
+     *
+     * @return false for dates saved without one.
+     */
+    public boolean hasRepeatPeriod() {
+        return repeatPeriod != null;
+    }
+
     public int getRepeatInterval() {
         return repeatInterval;
     }
@@ -313,6 +427,32 @@ public class ExcludedDate {
             this.dynamicWeekday = jsonObject.getInt(FIELD_DYNAMIC_WEEKDAY);
         }
 
+        /**
+         * Constructs a Date object from all of its fields.
+         *
+         * @param date           The date, as an ISO date time.
+         * @param dynamic        Whether the date is dynamic.
+         * @param dynamicMonth   The month of a dynamic date.
+         * @param dynamicWeek    The nth appearance of the weekday of a dynamic date.
+         * @param dynamicWeekday The weekday of a dynamic date.
+         */
+        public Date(String date, boolean dynamic, int dynamicMonth, int dynamicWeek, int dynamicWeekday) {
+            this.date = date;
+            this.dynamic = dynamic;
+            this.dynamicMonth = dynamicMonth;
+            this.dynamicWeek = dynamicWeek;
+            this.dynamicWeekday = dynamicWeekday;
+        }
+
+        private static boolean isIsoDateTime(String date) {
+            try {
+                LocalDate.parse(date, DateTimeFormatter.ISO_DATE_TIME);
+                return true;
+            } catch (DateTimeException e) {
+                return false;
+            }
+        }
+
         LocalDate getLocalDate() {
             return LocalDate.parse(this.getDate(), DateTimeFormatter.ISO_DATE_TIME);
         }
@@ -325,6 +465,10 @@ public class ExcludedDate {
             if (!targetObject.containsKey(FIELD_DYNAMIC)) {
                 return new ValidationResult(false, FIELD_DYNAMIC, "is required");
             } else {
+                if (targetObject.get(FIELD_DATE) instanceof String && !isIsoDateTime(targetObject.getString(FIELD_DATE))
+                    && !(isEndDate && targetObject.getString(FIELD_DATE).isEmpty())) {
+                    return new ValidationResult(false, FIELD_DATE, "should be an ISO date time");
+                }
                 if (isEndDate) {
                     return ValidationResult.getSuccessValidation();
                 }
@@ -346,8 +490,8 @@ public class ExcludedDate {
 
                         if (!(targetObject.get(FIELD_DYNAMIC_WEEK) instanceof Integer)) {
                             return new ValidationResult(false, FIELD_DYNAMIC_WEEK, "should be int");
-                        } else if (targetObject.getInt(FIELD_DYNAMIC_WEEK) > 4 || targetObject.getInt(FIELD_DYNAMIC_WEEK) < 1) {
-                            return new ValidationResult(false, FIELD_DYNAMIC_WEEK, "should be between 1 and 4");
+                        } else if (targetObject.getInt(FIELD_DYNAMIC_WEEK) > NthWeekdayResolver.LAST || targetObject.getInt(FIELD_DYNAMIC_WEEK) < 1) {
+                            return new ValidationResult(false, FIELD_DYNAMIC_WEEK, "should be between 1 and 5");
                         }
 
                         if (!(targetObject.get(FIELD_DYNAMIC_MONTH) instanceof Integer)) {
@@ -397,7 +541,7 @@ public class ExcludedDate {
 
         /**
          * The nth time the weekday appear.
-         * Ranging from 1 to 4, indicating the first, second, third and the fourth appearance.
+         * Ranging from 1 to 5, indicating the first, second, third, fourth and the last appearance.
          */
         private int dynamicWeek;
 
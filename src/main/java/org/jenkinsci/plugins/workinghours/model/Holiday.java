@@ -1,5 +1,8 @@
 package org.jenkinsci.plugins.workinghours.model;
 
+import org.jenkinsci.plugins.workinghours.utils.HolidayTable;
+import org.jenkinsci.plugins.workinghours.utils.TimeSource;
+
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Date;
@@ -31,38 +34,39 @@ public class Holiday {
     }
 
     /**
-     * Get a {@link Holiday} from two {@link de.jollyday.Holiday}, compare their time with today and return the next occurrence.
+     * Construct holiday with its next occurrence.
      *
-     * @param jollydayThisYear This year's holiday.
-     * @param jollydayNextYear Next year's holiday.
-     * @return Next Occurrence.
+     * @param name           Holiday's name.
+     * @param key            Holiday's key.
+     * @param nextOccurrence Epoch day of the holiday's next occurrence.
      */
-    private static Holiday getHolidayFromTwoJollyDay(de.jollyday.Holiday jollydayThisYear, de.jollyday.Holiday jollydayNextYear) {
-        final LocalDate now = LocalDate.now();
-        final LocalDate jollydayThisYearDate = LocalDate.of(
-            jollydayThisYear.getDate().getYear(),
-            jollydayThisYear.getDate().getMonthOfYear(),
-            jollydayThisYear.getDate().getDayOfMonth()
-        );
-        if (jollydayThisYearDate.isAfter(now) || jollydayThisYearDate.isEqual(now)) {
-            return new Holiday(jollydayThisYear);
-        } else {
-            return new Holiday(jollydayNextYear);
-        }
+    public Holiday(String name, String key, int nextOccurrence) {
+        this.name = name;
+        this.key = key;
+        this.nextOccurrence = Date.from(LocalDate.ofEpochDay(nextOccurrence)
+            .atStartOfDay(TimeSource.getClock().getZone()).toInstant());
     }
 
     /**
-     * Merge two list of {@link de.jollyday.Holiday} into a list of {@link Holiday}
+     * Merge two years of resolved holidays into a list of {@link Holiday}, whose next occurrence is
+     * this year's if it is not past yet and next year's otherwise.
      *
      * @param resultThisYear This year's holidays.
      * @param resultNextYear Next year's holidays.
      * @return List of holidays whose next occurrence is resolved.
      */
-    public static List<Holiday> mergeTwoYearsHoliday(List<de.jollyday.Holiday> resultThisYear, List<de.jollyday.Holiday> resultNextYear) {
-        List<Holiday> holidays = new ArrayList<>();
+    public static List<Holiday> mergeTwoYearsHoliday(HolidayTable resultThisYear, HolidayTable resultNextYear) {
+        final int today = (int) TimeSource.today().toEpochDay();
+        List<Holiday> holidays = new ArrayList<>(resultThisYear.size());
         for (int i = 0; i < resultThisYear.size(); i++) {
-            final Holiday holiday = getHolidayFromTwoJollyDay(resultThisYear.get(i), resultNextYear.get(i));
-            holidays.add(holiday);
+            int nextOccurrence = resultThisYear.getEpochDay(i);
+            if (nextOccurrence < today) {
+                int nextYear = resultNextYear.epochDayOf(resultThisYear.getKey(i));
+                if (nextYear != HolidayTable.NONE) {
+                    nextOccurrence = nextYear;
+                }
+            }
+            holidays.add(new Holiday(resultThisYear.getDescription(i), resultThisYear.getKey(i), nextOccurrence));
         }
         return holidays;
     }
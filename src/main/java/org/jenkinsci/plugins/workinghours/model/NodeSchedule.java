@@ -0,0 +1,59 @@
+package org.jenkinsci.plugins.workinghours.model;
+
+import net.sf.json.JSONObject;
+import org.apache.commons.lang.StringUtils;
+import org.jenkinsci.plugins.workinghours.ValidationResult;
+
+/**
+ * Restricts the nodes with a label, or a single node by its name, to the time ranges of a
+ * {@link ScheduleProfile}, or to the global ones. Outside of them the nodes take no builds at all.
+ */
+public class NodeSchedule {
+
+    private static final String FIELD_LABEL = "label";
+    private static final String FIELD_PROFILE = "profile";
+
+    public static ValidationResult validateNodeSchedule(JSONObject targetJson) {
+        if (!targetJson.containsKey(FIELD_LABEL) || StringUtils.isBlank(targetJson.getString(FIELD_LABEL))) {
+            return new ValidationResult(false, FIELD_LABEL, "is required");
+        } else if (targetJson.getString(FIELD_LABEL).trim().contains(" ")) {
+            return new ValidationResult(false, FIELD_LABEL, "should be a single label or node name");
+        }
+
+        return ValidationResult.getSuccessValidation();
+    }
+
+    /**
+     * Constructs a NodeSchedule object.
+     *
+     * @param label   The label or node name.
+     * @param profile The name of the profile to follow, or null for the global time ranges.
+     */
+    public NodeSchedule(String label, String profile) {
+        this.label = label;
+        this.profile = StringUtils.isBlank(profile) ? null : profile.trim();
+    }
+
+    /**
+     * Constructs a NodeSchedule object using JSON.
+     *
+     * @param sourceJSON The source json data that contains the fields.
+     */
+    public NodeSchedule(JSONObject sourceJSON) {
+        this(sourceJSON.getString(FIELD_LABEL).trim(), sourceJSON.optString(FIELD_PROFILE, null));
+    }
+
+    /*The label or node name the schedule applies to*/
+    private String label;
+
+    /*The name of the profile to follow, or null for the global time ranges*/
+    private String profile;
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getProfile() {
+        return profile;
+    }
+}
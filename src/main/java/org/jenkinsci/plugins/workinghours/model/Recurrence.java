@@ -0,0 +1,243 @@
+package org.jenkinsci.plugins.workinghours.model;
+
+import org.jenkinsci.plugins.workinghours.utils.DateTimeUtility;
+import org.jenkinsci.plugins.workinghours.utils.NthWeekdayResolver;
+import org.jenkinsci.plugins.workinghours.utils.TimeSource;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * The days on which a custom {@link ExcludedDate} occurs, honoring its repeat settings.
+ * <p>
+ * The first occurrence is the start date, or for a dynamic date the first matching day on or after it.
+ * A repeating date then occurs once in every {@code interval}th week, month or year after that,
+ * until the end date if there is one, and for at most {@code count} periods if it is limited.
+ * A period in which the day does not exist, like the 31st of a short month,
+ * is skipped but still counted.
+ * <p>
+ * Membership is decided arithmetically from the period the day falls in, and occurrences
+ * can be listed lazily from any day on without walking from the start.
+ */
+public final class Recurrence {
+
+    /**
+     * Returned where there is no occurrence.
+     */
+    public static final int NONE = Integer.MIN_VALUE;
+
+    /*How many periods in a row may lack the day before giving up looking for the next occurrence.*/
+    private static final int MAX_SKIPPED_PERIODS = 400;
+
+    private final RepeatPeriod period;
+    private final boolean dynamic;
+    private final boolean repeat;
+    private final int interval;
+    private final int count;
+    private final int firstEpochDay;
+    private final int lastEpochDay;
+
+    /*For a dynamic date, the nth appearance of the weekday (5 for the last one), the weekday from 1 (Monday) to 7 (Sunday), and the month.*/
+    private final int week;
+    private final int weekday;
+    private final int month;
+
+    /*The period index (week, month or year) of the first occurrence, and its day of month.*/
+    private final int firstPeriod;
+    private final int dayOfMonth;
+
+    private Recurrence(RepeatPeriod period, boolean dynamic, boolean repeat, int interval, int count,
+                       int startEpochDay, int lastEpochDay, int week, int weekday, int month) {
+        this.period = period;
+        this.dynamic = dynamic;
+        this.repeat = repeat;
+        this.interval = interval;
+        this.count = count;
+        this.lastEpochDay = lastEpochDay;
+        this.week = week;
+        this.weekday = weekday;
+        this.month = month;
+        this.firstEpochDay = dynamic ? firstDynamicOccurrence(startEpochDay) : startEpochDay;
+        this.firstPeriod = this.firstEpochDay == NONE ? 0 : periodOf(this.firstEpochDay);
+        this.dayOfMonth = this.firstEpochDay == NONE ? 0 : DateTimeUtility.dayOfMonthOf(this.firstEpochDay);
+    }
+
+    /**
+     * Compile the recurrence of a custom excluded date.
+     *
+     * @param excludedDate The excluded date, which must not be a holiday.
+     * @param period       How the excluded date repeats, or null if unknown.
+     * @return {@link Recurrence} The recurrence.
+     * @throws java.time.DateTimeException If the start or end date is not an ISO date time.
+     */
+    static Recurrence of(ExcludedDate excludedDate, RepeatPeriod period) {
+        ExcludedDate.Date startDate = excludedDate.getStartDate();
+        ExcludedDate.Date endDate = excludedDate.getEndDate();
+        int lastEpochDay = !excludedDate.isNoEnd() && endDate != null
+            && endDate.getDate() != null && !endDate.getDate().isEmpty()
+            ? (int) endDate.getLocalDate().toEpochDay()
+            : Integer.MAX_VALUE;
+        /*Some callers use 0 for Sunday, the rest of the plugin uses 7.*/
+        int weekday = startDate.getDynamicWeekday() == 0 ? 7 : startDate.getDynamicWeekday();
+        return new Recurrence(
+            period == null ? RepeatPeriod.REPEAT_BY_YEAR : period,
+            startDate.isDynamic(),
+            excludedDate.isRepeat(),
+            Math.max(1, excludedDate.getRepeatInterval()),
+            excludedDate.getRepeatCount() > 0 ? excludedDate.getRepeatCount() : Integer.MAX_VALUE,
+            (int) startDate.getLocalDate().toEpochDay(),
+            lastEpochDay,
+            startDate.getDynamicWeek(),
+            weekday,
+            startDate.getDynamicMonth());
+    }
+
+    /**
+     * Whether the date occurs on a day.
+     *
+     * @param epochDay The day to check, as an epoch day.
+     * @return true if the date occurs on that day.
+     */
+    public boolean contains(int epochDay) {
+        if (firstEpochDay == NONE || epochDay < firstEpochDay || epochDay > lastEpochDay) {
+            return false;
+        }
+        int periods = periodOf(epochDay) - firstPeriod;
+        if (periods % interval != 0) {
+            return false;
+        }
+        int index = periods / interval;
+        return isWithinCount(index) && occurrenceIn(index) == epochDay;
+    }
+
+    /**
+     * Get the first occurrence on or after a day.
+     *
+     * @param fromEpochDay The day to start from, as an epoch day.
+     * @return The epoch day of the occurrence, or {@link #NONE}.
+     */
+    public int nextOccurrence(int fromEpochDay) {
+        PrimitiveIterator.OfInt occurrences = occurrencesFrom(fromEpochDay);
+        return occurrences.hasNext() ? occurrences.nextInt() : NONE;
+    }
+
+    /**
+     * List the occurrences on or after a day, in order.
+     * The list starts at the period of that day, and each occurrence is only computed when asked for.
+     *
+     * @param fromEpochDay The day to start from, as an epoch day.
+     * @return The epoch days of the occurrences.
+     */
+    public PrimitiveIterator.OfInt occurrencesFrom(int fromEpochDay) {
+        int from = Math.max(fromEpochDay, firstEpochDay);
+        int startIndex = Math.max(0, Math.floorDiv(periodOf(from) - firstPeriod, interval));
+        return new OccurrenceIterator(startIndex, from);
+    }
+
+    private boolean isWithinCount(int index) {
+        return repeat ? index < count : index == 0;
+    }
+
+    /*The occurrence in the index-th repeated period, or NONE if the day does not exist in it.*/
+    private int occurrenceIn(int index) {
+        int periodIndex = firstPeriod + index * interval;
+        switch (period) {
+            case REPEAT_BY_WEEK:
+                return firstEpochDay + index * interval * 7;
+            case REPEAT_BY_MONTH:
+                return dayIn(Math.floorDiv(periodIndex, 12), Math.floorMod(periodIndex, 12) + 1);
+            default:
+                return dayIn(periodIndex, dynamic ? month : DateTimeUtility.monthOf(firstEpochDay));
+        }
+    }
+
+    /*The matching day in a month, or NONE.*/
+    private int dayIn(int year, int monthOfYear) {
+        if (dynamic) {
+            return NthWeekdayResolver.nthWeekday(year, monthOfYear, week, weekday);
+        }
+        int firstOfMonth = DateTimeUtility.toEpochDay(year, monthOfYear, 1);
+        int length = DateTimeUtility.toEpochDay(monthOfYear == 12 ? year + 1 : year, monthOfYear % 12 + 1, 1) - firstOfMonth;
+        return dayOfMonth <= length ? firstOfMonth + dayOfMonth - 1 : NONE;
+    }
+
+    /*Index of the week (counted from the first occurrence), month or year containing a day.*/
+    private int periodOf(int epochDay) {
+        switch (period) {
+            case REPEAT_BY_WEEK:
+                return Math.floorDiv(epochDay - firstEpochDay, 7);
+            case REPEAT_BY_MONTH:
+                return DateTimeUtility.yearOf(epochDay) * 12 + DateTimeUtility.monthOf(epochDay) - 1;
+            default:
+                return DateTimeUtility.yearOf(epochDay);
+        }
+    }
+
+    /*The first day on or after the start that matches the dynamic date.*/
+    private int firstDynamicOccurrence(int startEpochDay) {
+        if (period == RepeatPeriod.REPEAT_BY_WEEK) {
+            return startEpochDay + Math.floorMod(weekday - isoDayOfWeek(startEpochDay), 7);
+        }
+        int year = DateTimeUtility.yearOf(startEpochDay);
+        int monthOfYear = period == RepeatPeriod.REPEAT_BY_MONTH ? DateTimeUtility.monthOf(startEpochDay) : month;
+        for (int skipped = 0; skipped < MAX_SKIPPED_PERIODS; skipped++) {
+            int day = dayIn(year, monthOfYear);
+            if (day != NONE && day >= startEpochDay) {
+                return day;
+            }
+            if (period == RepeatPeriod.REPEAT_BY_MONTH && monthOfYear < 12) {
+                monthOfYear++;
+            } else {
+                year++;
+                monthOfYear = period == RepeatPeriod.REPEAT_BY_MONTH ? 1 : month;
+            }
+        }
+        return NONE;
+    }
+
+    private static int isoDayOfWeek(int epochDay) {
+        int dayOfWeek = TimeSource.dayOfWeek(epochDay);
+        return dayOfWeek == 0 ? 7 : dayOfWeek;
+    }
+
+    /**
+     * Walks the repeated periods from a starting one, yielding the days that exist and are in range.
+     */
+    private final class OccurrenceIterator implements PrimitiveIterator.OfInt {
+        private final int from;
+        private int index;
+        private int next;
+
+        OccurrenceIterator(int index, int from) {
+            this.index = index;
+            this.from = from;
+            this.next = firstEpochDay == NONE ? NONE : advance();
+        }
+
+        private int advance() {
+            for (int skipped = 0; skipped < MAX_SKIPPED_PERIODS && isWithinCount(index); skipped++) {
+                int day = occurrenceIn(index++);
+                if (day == NONE || day < from) {
+                    continue;
+                }
+                return day > lastEpochDay ? NONE : day;
+            }
+            return NONE;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != NONE;
+        }
+
+        @Override
+        public int nextInt() {
+            if (next == NONE) {
+                throw new NoSuchElementException();
+            }
+            int day = next;
+            next = advance();
+            return day;
+        }
+    }
+}
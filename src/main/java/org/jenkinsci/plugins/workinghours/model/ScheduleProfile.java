@@ -0,0 +1,84 @@
+package org.jenkinsci.plugins.workinghours.model;
+
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.apache.commons.lang.StringUtils;
+import org.jenkinsci.plugins.workinghours.ValidationResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A named set of time ranges, which jobs can enforce instead of the global ones
+ * with {@link org.jenkinsci.plugins.workinghours.EnforceScheduleJobProperty}.
+ * Excluded dates and blackout windows are global and apply to every profile.
+ */
+public class ScheduleProfile {
+
+    private static final String FIELD_NAME = "name";
+    private static final String FIELD_TIME_RANGES = "timeRanges";
+
+    public static ValidationResult validateScheduleProfile(JSONObject targetJson) {
+        if (!targetJson.containsKey(FIELD_NAME) || StringUtils.isBlank(targetJson.getString(FIELD_NAME))) {
+            return new ValidationResult(false, FIELD_NAME, "is required");
+        }
+
+        if (!(targetJson.get(FIELD_TIME_RANGES) instanceof JSONArray)) {
+            return new ValidationResult(false, FIELD_TIME_RANGES, "should be a list");
+        }
+        JSONArray timeRanges = targetJson.getJSONArray(FIELD_TIME_RANGES);
+        for (int i = 0; i < timeRanges.size(); i++) {
+            ValidationResult result = TimeRange.validateTimeRange(timeRanges.getJSONObject(i));
+            if (!result.isValid()) {
+                return result;
+            }
+        }
+
+        return ValidationResult.getSuccessValidation();
+    }
+
+    /**
+     * Constructs a ScheduleProfile object.
+     *
+     * @param name       The name of the profile.
+     * @param timeRanges The time ranges in which builds are allowed.
+     */
+    public ScheduleProfile(String name, List<TimeRange> timeRanges) {
+        this.name = name;
+        this.timeRanges = new ArrayList<>(timeRanges);
+    }
+
+    /**
+     * Constructs a ScheduleProfile object using JSON.
+     *
+     * @param sourceJSON The source json data that contains the fields.
+     */
+    public ScheduleProfile(JSONObject sourceJSON) {
+        this.name = sourceJSON.getString(FIELD_NAME).trim();
+        this.timeRanges = new ArrayList<>();
+        JSONArray timeRangesJson = sourceJSON.getJSONArray(FIELD_TIME_RANGES);
+        for (int i = 0; i < timeRangesJson.size(); i++) {
+            this.timeRanges.add(new TimeRange(timeRangesJson.getJSONObject(i)));
+        }
+    }
+
+    /*The name jobs refer to the profile by*/
+    private String name;
+
+    /*The time ranges in which builds are allowed*/
+    private List<TimeRange> timeRanges;
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the time ranges of the profile.
+     *
+     * @return An unmodifiable list of time ranges.
+     */
+    public List<TimeRange> getTimeRanges() {
+        return timeRanges == null ? Collections.<TimeRange>emptyList() : Collections.unmodifiableList(timeRanges);
+    }
+}
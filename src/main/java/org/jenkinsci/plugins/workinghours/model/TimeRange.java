@@ -25,10 +25,9 @@ package org.jenkinsci.plugins.workinghours.model;
 
 import net.sf.json.JSONObject;
 import org.jenkinsci.plugins.workinghours.ValidationResult;
-import org.jenkinsci.plugins.workinghours.utils.DateTimeUtility;
 
-import java.time.LocalTime;
 import java.util.Calendar;
+import java.util.UUID;
 
 /**
  * Encapsulates a time range, which matches a times on a particular day of the
@@ -41,6 +40,7 @@ public class TimeRange {
     private static final String FIELD_START_TIME = "startTime";
     private static final String FIELD_END_TIME = "endTime";
     private static final String FIELD_DAY_OF_WEEK = "dayOfWeek";
+    private static final String FIELD_ID = "id";
 
     public static ValidationResult validateTimeRange(JSONObject targetJson) {
         if (!(targetJson.containsKey(FIELD_START_TIME))) {
@@ -81,6 +81,19 @@ public class TimeRange {
      * @param dayOfWeek The day of the time range.
      */
     public TimeRange(int startTime, int endTime, int dayOfWeek) {
+        this(UUID.randomUUID().toString(), startTime, endTime, dayOfWeek);
+    }
+
+    /**
+     * Constructs a TimeRange object with a known id.
+     *
+     * @param id        The id of the time range.
+     * @param startTime The start time of the time range.
+     * @param endTime   The end time of the time range.
+     * @param dayOfWeek The day of the time range.
+     */
+    public TimeRange(String id, int startTime, int endTime, int dayOfWeek) {
+        this.id = id;
         this.startTime = startTime;
         this.endTime = endTime;
         this.dayOfWeek = dayOfWeek;
@@ -92,11 +105,25 @@ public class TimeRange {
      * @param sourceJSON The source json data that contains the fields.
      */
     public TimeRange(JSONObject sourceJSON) {
+        String sourceId = sourceJSON.optString(FIELD_ID, null);
+        this.id = sourceId == null || sourceId.isEmpty() ? UUID.randomUUID().toString() : sourceId;
         this.startTime = sourceJSON.getInt(FIELD_START_TIME);
         this.endTime = sourceJSON.getInt(FIELD_END_TIME);
         this.dayOfWeek = sourceJSON.getInt(FIELD_DAY_OF_WEEK);
     }
 
+    /**
+     * Gives time ranges saved before they had ids one, which sticks from the next save on.
+     *
+     * @return This time range.
+     */
+    private Object readResolve() {
+        if (this.id == null) {
+            this.id = UUID.randomUUID().toString();
+        }
+        return this;
+    }
+
 
     /**
      * Check whether configured rule includes a date.
@@ -105,21 +132,28 @@ public class TimeRange {
      * @return true if date is inside of configured rule.
      */
     public Boolean includesTime(Calendar date) {
-        LocalTime allowedStartTime = DateTimeUtility.localTimeFromMinutes(getStartTime());
-        LocalTime allowedEndTime = DateTimeUtility.localTimeFromMinutes(getEndTime());
-
-        LocalTime checkTime = LocalTime.of(
-                date.get(Calendar.HOUR_OF_DAY),
-                date.get(Calendar.MINUTE));
-
-        return date.get(Calendar.DAY_OF_WEEK)-1 == this.getDayOfWeek()
-                && (checkTime.equals(allowedStartTime)
-                || checkTime.isAfter(allowedStartTime))
-                && (checkTime.equals(allowedEndTime)
-                || checkTime.isBefore(allowedEndTime));
+        return includes(
+                date.get(Calendar.DAY_OF_WEEK) - 1,
+                date.get(Calendar.HOUR_OF_DAY) * 60 + date.get(Calendar.MINUTE));
+    }
+
+    /**
+     * Check whether configured rule includes a minute of a day of week, without creating any objects.
+     *
+     * @param dayOfWeek   Day of week, ranging from 0 to 6, indicating from Sunday to Saturday.
+     * @param minuteOfDay Minutes from 00:00.
+     * @return true if the minute is inside of configured rule.
+     */
+    public boolean includes(int dayOfWeek, int minuteOfDay) {
+        return dayOfWeek == this.dayOfWeek
+                && minuteOfDay >= this.startTime
+                && minuteOfDay <= this.endTime;
     }
 
 
+    /*The stable id of the time range, to update or delete it by*/
+    private String id;
+
     /*The start time of the time range, in form of the number of the minutes from 00:00*/
     private int startTime = 0;
 
@@ -129,6 +163,10 @@ public class TimeRange {
     /*The day of week*/
     private int dayOfWeek;
 
+    public String getId() {
+        return id;
+    }
+
     public int getStartTime() {
         return startTime;
     }
@@ -2,54 +2,155 @@ package org.jenkinsci.plugins.workinghours.presets;
 
 import com.github.heqiao2010.lunar.LunarCalendar;
 import org.jenkinsci.plugins.workinghours.model.Holiday;
+import org.jenkinsci.plugins.workinghours.utils.DateTimeUtility;
+import org.jenkinsci.plugins.workinghours.utils.TimeSource;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
-public class ChineseHolidayManager {
-
-    private static ChineseHolidayManager instance;
+/**
+ * The Chinese lunar festivals.
+ * Their solar dates are converted once, when the manager is first used, into a table covering
+ * {@link #FIRST_YEAR} to {@link #LAST_YEAR}, so looking one up is an array access.
+ * Years outside of the table are converted on demand.
+ * <p>
+ * The manager is immutable apart from a memo of the next occurrences, and safe to share between threads.
+ */
+public final class ChineseHolidayManager {
 
     static final String REGION_CODE = "CN";
 
-    private List<Holiday> chineseLunarHolidays;
+    static final int FIRST_YEAR = 1900;
+    static final int LAST_YEAR = 2100;
 
-    public List<Holiday> getHolidayThisYear() {
-        for (Holiday chineseLunarHoliday : chineseLunarHolidays) {
-            ((ChineseLunarHoliday) chineseLunarHoliday).updateNextOccurrence();
+    private static final Festival[] FESTIVALS = {
+        new Festival("Spring Festival", 1, 1),
+        new Festival("Lantern Festival", 1, 15),
+        new Festival("Dragon Boat Festival", 5, 5),
+        new Festival("Chinese Valentine's Festival", 7, 7),
+        new Festival("Mid-Autumn Festival", 8, 15),
+    };
+
+    /*Festival index -> epoch day of the festival in each year from FIRST_YEAR.*/
+    private final int[][] occurrences;
+
+    /*The next occurrences as of the day they were resolved on.*/
+    private volatile NextOccurrences nextOccurrences;
+
+    private ChineseHolidayManager() {
+        occurrences = new int[FESTIVALS.length][LAST_YEAR - FIRST_YEAR + 1];
+        for (int festival = 0; festival < FESTIVALS.length; festival++) {
+            for (int year = FIRST_YEAR; year <= LAST_YEAR; year++) {
+                occurrences[festival][year - FIRST_YEAR] = FESTIVALS[festival].toEpochDay(year);
+            }
         }
-        return this.chineseLunarHolidays;
     }
 
-    private ChineseHolidayManager() {
-        chineseLunarHolidays = new ArrayList<>();
-        chineseLunarHolidays.add(new ChineseLunarHoliday("Spring Festival", 1, 1));
-        chineseLunarHolidays.add(new ChineseLunarHoliday("Lantern Festival", 1, 15));
-        chineseLunarHolidays.add(new ChineseLunarHoliday("Dragon Boat Festival", 5, 5));
-        chineseLunarHolidays.add(new ChineseLunarHoliday("Chinese Valentine's Festival", 7, 7));
-        chineseLunarHolidays.add(new ChineseLunarHoliday("Mid-Autumn Festival", 8, 15));
+    /*Initialized on first use by the class loader, which also makes it safe to publish.*/
+    private static final class Holder {
+        private static final ChineseHolidayManager INSTANCE = new ChineseHolidayManager();
     }
 
     public static ChineseHolidayManager getInstance() {
-        if (instance == null) {
-            instance = new ChineseHolidayManager();
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Get the festivals with their next occurrence from today on.
+     *
+     * @return {@link List} An unmodifiable list of the festivals.
+     */
+    public List<Holiday> getHolidayThisYear() {
+        int today = (int) TimeSource.today().toEpochDay();
+        NextOccurrences next = this.nextOccurrences;
+        if (next == null || next.today != today) {
+            next = new NextOccurrences(today, resolveNextOccurrences(today));
+            this.nextOccurrences = next;
         }
-        return instance;
+        return next.holidays;
     }
 
+    private List<Holiday> resolveNextOccurrences(int today) {
+        int thisYear = DateTimeUtility.yearOf(today);
+        List<Holiday> holidays = new ArrayList<>(FESTIVALS.length);
+        for (int festival = 0; festival < FESTIVALS.length; festival++) {
+            int occurrence = epochDay(festival, thisYear);
+            if (occurrence <= today) {
+                occurrence = epochDay(festival, thisYear + 1);
+            }
+            holidays.add(new ChineseLunarHoliday(FESTIVALS[festival], occurrence));
+        }
+        return Collections.unmodifiableList(holidays);
+    }
 
-    public static class ChineseLunarHoliday extends Holiday {
-        private int monthOfYear;
-        private int dayOfMonth;
+    /**
+     * Get the day a festival falls on in a year.
+     *
+     * @param holidayKey The key of the festival.
+     * @param year       The year.
+     * @return The epoch day, or {@link PresetManager#NO_HOLIDAY} if there is no such festival.
+     */
+    public int getEpochDay(String holidayKey, int year) {
+        for (int festival = 0; festival < FESTIVALS.length; festival++) {
+            if (FESTIVALS[festival].key.equals(holidayKey)) {
+                return epochDay(festival, year);
+            }
+        }
+        return PresetManager.NO_HOLIDAY;
+    }
 
-        ChineseLunarHoliday(final String name, final int monthOfYear, final int dayOfMonth) {
+    private int epochDay(int festival, int year) {
+        if (year >= FIRST_YEAR && year <= LAST_YEAR) {
+            return occurrences[festival][year - FIRST_YEAR];
+        }
+        return FESTIVALS[festival].toEpochDay(year);
+    }
+
+    private static final class Festival {
+        private final String name;
+        private final String key;
+        private final int monthOfYear;
+        private final int dayOfMonth;
+
+        Festival(String name, int monthOfYear, int dayOfMonth) {
             this.name = name;
             this.key = name.toUpperCase().replace(" ", "_");
             this.monthOfYear = monthOfYear;
             this.dayOfMonth = dayOfMonth;
-            this.updateNextOccurrence();
+        }
+
+        int toEpochDay(int year) {
+            Calendar solar = LunarCalendar.lunar2Solar(year, monthOfYear, dayOfMonth, false);
+            return DateTimeUtility.toEpochDay(
+                solar.get(Calendar.YEAR), solar.get(Calendar.MONTH) + 1, solar.get(Calendar.DAY_OF_MONTH));
+        }
+    }
+
+    private static final class NextOccurrences {
+        private final int today;
+        private final List<Holiday> holidays;
+
+        NextOccurrences(int today, List<Holiday> holidays) {
+            this.today = today;
+            this.holidays = holidays;
+        }
+    }
+
+    public static class ChineseLunarHoliday extends Holiday {
+        private final int monthOfYear;
+        private final int dayOfMonth;
+
+        ChineseLunarHoliday(final Festival festival, final int nextOccurrence) {
+            this.name = festival.name;
+            this.key = festival.key;
+            this.monthOfYear = festival.monthOfYear;
+            this.dayOfMonth = festival.dayOfMonth;
+            this.nextOccurrence = Date.from(LocalDate.ofEpochDay(nextOccurrence)
+                .atStartOfDay(TimeSource.getClock().getZone()).toInstant());
         }
 
         public int getMonthOfYear() {
@@ -59,15 +160,5 @@ public class ChineseHolidayManager {
         public int getDayOfMonth() {
             return dayOfMonth;
         }
-
-        /*Update next occurrence according to now.*/
-        void updateNextOccurrence() {
-            final Date occurrenceThisYear = LunarCalendar.lunar2Solar(Calendar.getInstance().get(Calendar.YEAR), this.getMonthOfYear(), this.getDayOfMonth(), false).getTime();
-            if (occurrenceThisYear.after(new Date())) {
-                this.nextOccurrence = occurrenceThisYear;
-            } else {
-                this.nextOccurrence = LunarCalendar.lunar2Solar(Calendar.getInstance().get(Calendar.YEAR) + 1, this.getMonthOfYear(), this.getDayOfMonth(), false).getTime();
-            }
-        }
     }
 }
@@ -3,6 +3,7 @@ package org.jenkinsci.plugins.workinghours.presets;
 import de.jollyday.HolidayCalendar;
 import de.jollyday.HolidayManager;
 import org.jenkinsci.plugins.workinghours.model.Holiday;
+import org.jenkinsci.plugins.workinghours.utils.HolidayTable;
 import org.jenkinsci.plugins.workinghours.utils.JollydayUtil;
 
 import java.util.ArrayList;
@@ -10,14 +11,18 @@ import java.util.List;
 
 public class PresetManager {
 
-    /*Singleton*/
-    private static PresetManager instance;
+    /**
+     * Returned where a holiday does not occur.
+     */
+    public static final int NO_HOLIDAY = Integer.MIN_VALUE;
+
+    /*Singleton, initialized on first use by the class loader.*/
+    private static final class Holder {
+        private static final PresetManager INSTANCE = new PresetManager();
+    }
 
     public static PresetManager getInstance() {
-        if (instance == null) {
-            instance = new PresetManager();
-        }
-        return instance;
+        return Holder.INSTANCE;
     }
 
     private PresetManager() {
@@ -58,4 +63,20 @@ public class PresetManager {
             t.setContextClassLoader(orig);
         }
     }
+
+    /**
+     * Get the day a holiday of a region falls on in a year.
+     *
+     * @param regionCode Code of the region.
+     * @param holidayId  Key of the holiday.
+     * @param year       The year.
+     * @return The epoch day, or {@link #NO_HOLIDAY} if the holiday does not occur that year.
+     */
+    public int getHolidayEpochDay(String regionCode, String holidayId, int year) {
+        if (ChineseHolidayManager.REGION_CODE.equals(regionCode)) {
+            return ChineseHolidayManager.getInstance().getEpochDay(holidayId, year);
+        }
+        int epochDay = JollydayUtil.getHolidays(regionCode, year).epochDayOf(holidayId);
+        return epochDay == HolidayTable.NONE ? NO_HOLIDAY : epochDay;
+    }
 }
@@ -0,0 +1,114 @@
+package org.jenkinsci.plugins.workinghours.schedule;
+
+import org.jenkinsci.plugins.workinghours.model.BlackoutWindow;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The union of a list of {@link BlackoutWindow}, as sorted, disjoint spans of local epoch minutes.
+ * Overlapping and touching windows are merged when the index is built, so whether a minute
+ * is blacked out, and when it is free again, are answered with one binary search
+ * however many windows there are.
+ * Instances are immutable once built.
+ */
+public final class BlackoutIndex {
+
+    public static final BlackoutIndex EMPTY = new BlackoutIndex(new long[0], new long[0]);
+
+    /*starts[i] inclusive to ends[i] exclusive, with ends[i] < starts[i + 1].*/
+    private final long[] starts;
+    private final long[] ends;
+
+    private BlackoutIndex(long[] starts, long[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    /**
+     * Build the index of a list of blackout windows.
+     *
+     * @param blackoutWindows The blackout windows.
+     * @return {@link BlackoutIndex} The index.
+     */
+    public static BlackoutIndex build(List<BlackoutWindow> blackoutWindows) {
+        if (blackoutWindows.isEmpty()) {
+            return EMPTY;
+        }
+        int size = blackoutWindows.size();
+        long[][] spans = new long[size][];
+        for (int i = 0; i < size; i++) {
+            BlackoutWindow window = blackoutWindows.get(i);
+            spans[i] = new long[]{window.getStartMinute(), window.getEndMinute()};
+        }
+        Arrays.sort(spans, (a, b) -> Long.compare(a[0], b[0]));
+
+        long[] starts = new long[size];
+        long[] ends = new long[size];
+        int count = 0;
+        for (long[] span : spans) {
+            if (span[1] <= span[0]) {
+                continue;
+            }
+            if (count > 0 && span[0] <= ends[count - 1]) {
+                ends[count - 1] = Math.max(ends[count - 1], span[1]);
+            } else {
+                starts[count] = span[0];
+                ends[count] = span[1];
+                count++;
+            }
+        }
+        return count == 0 ? EMPTY : new BlackoutIndex(Arrays.copyOf(starts, count), Arrays.copyOf(ends, count));
+    }
+
+    /*Index of the last span starting at or before the minute, or -1.*/
+    private int floor(long epochMinute) {
+        int index = Arrays.binarySearch(starts, epochMinute);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * Whether a minute is inside one of the blackout windows.
+     *
+     * @param epochMinute The moment to check, as a local epoch minute.
+     * @return true if the minute is blacked out.
+     */
+    public boolean contains(long epochMinute) {
+        int index = floor(epochMinute);
+        return index >= 0 && epochMinute < ends[index];
+    }
+
+    /**
+     * Get the first minute on or after a moment that is not blacked out.
+     *
+     * @param epochMinute The moment to start from, as a local epoch minute.
+     * @return The local epoch minute, which is the given one if it is free.
+     */
+    public long nextFree(long epochMinute) {
+        int index = floor(epochMinute);
+        return index >= 0 && epochMinute < ends[index] ? ends[index] : epochMinute;
+    }
+
+    /**
+     * Get the next minute after a moment at which a blackout window starts or ends.
+     *
+     * @param epochMinute The moment to start from, as a local epoch minute.
+     * @return The local epoch minute of the next change, or {@link Long#MAX_VALUE} if there is none.
+     */
+    public long nextChange(long epochMinute) {
+        int index = floor(epochMinute);
+        if (index >= 0 && epochMinute < ends[index]) {
+            return ends[index];
+        }
+        return index + 1 < starts.length ? starts[index + 1] : Long.MAX_VALUE;
+    }
+
+    /**
+     * Whether there are no blackout windows at all.
+     *
+     * @return true if the index is empty.
+     */
+    public boolean isEmpty() {
+        return starts.length == 0;
+    }
+}
@@ -0,0 +1,229 @@
+package org.jenkinsci.plugins.workinghours.schedule;
+
+import org.jenkinsci.plugins.workinghours.model.DateType;
+import org.jenkinsci.plugins.workinghours.model.ExcludedDate;
+import org.jenkinsci.plugins.workinghours.model.Recurrence;
+import org.jenkinsci.plugins.workinghours.utils.DateTimeUtility;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+/**
+ * All excluded dates compiled into one bitmap of excluded days per year,
+ * for the current year and the next few years.
+ * Each day also keeps a count of the excluded dates that occur on it, so excluded dates can be
+ * added and removed without evaluating the others again, and checking a day is a single bit test
+ * however many excluded dates there are.
+ * <p>
+ * Excluded dates that cannot be compiled, such as a holiday jollyday cannot resolve, are kept
+ * aside and checked with {@link ExcludedDate#excludes} instead, so they still exclude their days.
+ * <p>
+ * Instances are immutable: changes produce a new calendar sharing nothing mutable with this one.
+ */
+public final class ExcludedDayCalendar {
+
+    /**
+     * How many years are compiled, starting at the first one.
+     */
+    public static final int YEARS = HolidayIndex.YEARS_AHEAD + 1;
+
+    private static final int WORDS_PER_YEAR = (366 + 63) / 64;
+
+    public static final ExcludedDayCalendar EMPTY = new ExcludedDayCalendar(0);
+
+    private final int firstYear;
+
+    /*Epoch day of January 1st of each year, plus the one after the last.*/
+    private final int[] yearStarts;
+
+    /*Per year, how many excluded dates occur on each day of the year.*/
+    private final int[][] counts;
+
+    /*Per year, the days of the year with a count above zero.*/
+    private final long[][] excluded;
+
+    /*The excluded dates that are not counted, as they could not be compiled.*/
+    private final List<ExcludedDate> unresolved;
+
+    private ExcludedDayCalendar(int firstYear) {
+        this.firstYear = firstYear;
+        this.yearStarts = new int[YEARS + 1];
+        for (int i = 0; i <= YEARS; i++) {
+            this.yearStarts[i] = DateTimeUtility.toEpochDay(firstYear + i, 1, 1);
+        }
+        this.counts = new int[YEARS][366];
+        this.excluded = new long[YEARS][WORDS_PER_YEAR];
+        this.unresolved = new ArrayList<>();
+    }
+
+    private ExcludedDayCalendar(ExcludedDayCalendar source) {
+        this.firstYear = source.firstYear;
+        this.yearStarts = source.yearStarts;
+        this.counts = new int[YEARS][];
+        this.excluded = new long[YEARS][];
+        for (int i = 0; i < YEARS; i++) {
+            this.counts[i] = source.counts[i].clone();
+            this.excluded[i] = source.excluded[i].clone();
+        }
+        this.unresolved = new ArrayList<>(source.unresolved);
+    }
+
+    /**
+     * Compile a list of excluded dates.
+     *
+     * @param excludedDates The excluded dates.
+     * @param firstYear     The first year to compile.
+     * @return {@link ExcludedDayCalendar} The calendar.
+     */
+    public static ExcludedDayCalendar build(List<ExcludedDate> excludedDates, int firstYear) {
+        ExcludedDayCalendar calendar = new ExcludedDayCalendar(firstYear);
+        calendar.apply(excludedDates, 1);
+        return calendar;
+    }
+
+    /**
+     * Get a copy of this calendar with some excluded dates added and others removed.
+     * Only the changed excluded dates are evaluated.
+     *
+     * @param added   The excluded dates to add.
+     * @param removed The excluded dates to remove, which must have been added before.
+     * @return {@link ExcludedDayCalendar} The new calendar.
+     * @throws IllegalStateException If a removed excluded date does not match what was added, such as a holiday
+     *                               that was resolved when it was added but cannot be resolved any more; the
+     *                               calendar has to be built again then.
+     */
+    public ExcludedDayCalendar withChanges(Collection<ExcludedDate> added, Collection<ExcludedDate> removed) {
+        ExcludedDayCalendar calendar = new ExcludedDayCalendar(this);
+        calendar.apply(removed, -1);
+        calendar.apply(added, 1);
+        return calendar;
+    }
+
+    /*Adds delta to the count of every day in the window on which one of the excluded dates occurs.*/
+    private void apply(Collection<ExcludedDate> excludedDates, int delta) {
+        if (excludedDates.isEmpty()) {
+            return;
+        }
+        int first = yearStarts[0];
+        int end = yearStarts[YEARS];
+        List<ExcludedDate> holidays = new ArrayList<>();
+        for (ExcludedDate excludedDate : excludedDates) {
+            if (delta < 0 && unresolved.remove(excludedDate)) {
+                continue;
+            }
+            if (excludedDate.getType() == DateType.TYPE_HOLIDAY.getValue()) {
+                holidays.add(excludedDate);
+                continue;
+            }
+            Recurrence recurrence = excludedDate.getRecurrence();
+            if (recurrence == null) {
+                unresolved(excludedDate, delta);
+                continue;
+            }
+            PrimitiveIterator.OfInt occurrences = recurrence.occurrencesFrom(first);
+            while (occurrences.hasNext()) {
+                int day = occurrences.nextInt();
+                if (day >= end) {
+                    break;
+                }
+                count(day, delta);
+            }
+        }
+        if (!holidays.isEmpty()) {
+            HolidayIndex index = HolidayIndex.build(holidays, firstYear);
+            for (ExcludedDate holiday : holidays) {
+                if (index.covers(holiday, first)) {
+                    index.forEachOccurrence(holiday, day -> count(day, delta));
+                } else {
+                    unresolved(holiday, delta);
+                }
+            }
+        }
+    }
+
+    private void unresolved(ExcludedDate excludedDate, int delta) {
+        if (delta < 0) {
+            throw new IllegalStateException("Excluded date " + excludedDate.getId()
+                + " was compiled when it was added but cannot be compiled to be removed");
+        }
+        unresolved.add(excludedDate);
+    }
+
+    private void count(int epochDay, int delta) {
+        int year = yearIndexOf(epochDay);
+        int dayOfYear = epochDay - yearStarts[year];
+        int count = counts[year][dayOfYear] + delta;
+        if (count < 0) {
+            throw new IllegalStateException("More excluded dates removed than added on epoch day " + epochDay);
+        }
+        counts[year][dayOfYear] = count;
+        if (count > 0) {
+            excluded[year][dayOfYear >> 6] |= 1L << dayOfYear;
+        } else {
+            excluded[year][dayOfYear >> 6] &= ~(1L << dayOfYear);
+        }
+    }
+
+    private int yearIndexOf(int epochDay) {
+        int year = 0;
+        while (epochDay >= yearStarts[year + 1]) {
+            year++;
+        }
+        return year;
+    }
+
+    /**
+     * Get the first compiled year.
+     *
+     * @return The first compiled year.
+     */
+    public int getFirstYear() {
+        return firstYear;
+    }
+
+    /**
+     * Whether the calendar can answer for a day.
+     *
+     * @param epochDay The day to check.
+     * @return true if {@link #contains} can be used.
+     */
+    public boolean covers(int epochDay) {
+        return this != EMPTY && epochDay >= yearStarts[0] && epochDay < yearStarts[YEARS];
+    }
+
+    /**
+     * Whether any excluded date occurs on a day, including those that could not be compiled.
+     *
+     * @param epochDay The day to check, which has to be covered.
+     * @return true if the day is excluded.
+     */
+    public boolean contains(int epochDay) {
+        int year = yearIndexOf(epochDay);
+        int dayOfYear = epochDay - yearStarts[year];
+        if ((excluded[year][dayOfYear >> 6] & (1L << dayOfYear)) != 0) {
+            return true;
+        }
+        for (ExcludedDate excludedDate : unresolved) {
+            try {
+                if (excludedDate.excludes(epochDay)) {
+                    return true;
+                }
+            } catch (RuntimeException e) {
+                /*Still not resolvable; the failure was logged when the calendar was built.*/
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the excluded dates that could not be compiled, which {@link #contains} checks one by one.
+     *
+     * @return An unmodifiable list of excluded dates.
+     */
+    public List<ExcludedDate> getUnresolved() {
+        return Collections.unmodifiableList(unresolved);
+    }
+}
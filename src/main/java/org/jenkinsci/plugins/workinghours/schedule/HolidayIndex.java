@@ -0,0 +1,144 @@
+package org.jenkinsci.plugins.workinghours.schedule;
+
+import org.jenkinsci.plugins.workinghours.model.DateType;
+import org.jenkinsci.plugins.workinghours.model.ExcludedDate;
+import org.jenkinsci.plugins.workinghours.presets.PresetManager;
+import org.jenkinsci.plugins.workinghours.utils.DateTimeUtility;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Precomputed occurrences of the holidays referenced by excluded dates,
+ * covering the current year and the next few years.
+ * Each (region, holiday) pair maps to a bitmap of epoch days relative to the first indexed day,
+ * so checking a holiday is a hash lookup and a bit test.
+ */
+public final class HolidayIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(HolidayIndex.class.getName());
+
+    /**
+     * How many years after the first one are indexed.
+     */
+    static final int YEARS_AHEAD = 2;
+
+    public static final HolidayIndex EMPTY = new HolidayIndex(0, 0, 0, Collections.<String, Map<String, BitSet>>emptyMap());
+
+    private final int firstYear;
+    private final int firstEpochDay;
+    private final int endEpochDay;
+
+    /*Region code -> holiday id -> days since firstEpochDay on which the holiday occurs.*/
+    private final Map<String, Map<String, BitSet>> occurrences;
+
+    private HolidayIndex(int firstYear, int firstEpochDay, int endEpochDay, Map<String, Map<String, BitSet>> occurrences) {
+        this.firstYear = firstYear;
+        this.firstEpochDay = firstEpochDay;
+        this.endEpochDay = endEpochDay;
+        this.occurrences = occurrences;
+    }
+
+    /**
+     * Build the index for the holidays referenced by a list of excluded dates.
+     * Holidays that cannot be resolved are left out and not {@link #covers covered}; callers have to
+     * check them with {@link ExcludedDate#excludes}, as {@link ExcludedDayCalendar} does.
+     *
+     * @param excludedDates The excluded dates.
+     * @param firstYear     The first year to index.
+     * @return {@link HolidayIndex} The index.
+     */
+    public static HolidayIndex build(List<ExcludedDate> excludedDates, int firstYear) {
+        int lastYear = firstYear + YEARS_AHEAD;
+        int firstEpochDay = DateTimeUtility.toEpochDay(firstYear, 1, 1);
+        int endEpochDay = DateTimeUtility.toEpochDay(lastYear + 1, 1, 1);
+
+        Map<String, Map<String, BitSet>> occurrences = new HashMap<>();
+        for (ExcludedDate excludedDate : excludedDates) {
+            if (excludedDate.getType() != DateType.TYPE_HOLIDAY.getValue()) {
+                continue;
+            }
+            String region = excludedDate.getHolidayRegion();
+            String holidayId = excludedDate.getHolidayId();
+            Map<String, BitSet> regionOccurrences = occurrences.get(region);
+            if (regionOccurrences != null && regionOccurrences.containsKey(holidayId)) {
+                continue;
+            }
+            try {
+                BitSet days = new BitSet(endEpochDay - firstEpochDay);
+                for (int year = firstYear; year <= lastYear; year++) {
+                    int day = PresetManager.getInstance().getHolidayEpochDay(region, holidayId, year);
+                    if (day >= firstEpochDay && day < endEpochDay) {
+                        days.set(day - firstEpochDay);
+                    }
+                }
+                occurrences.computeIfAbsent(region, key -> new HashMap<>()).put(holidayId, days);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, String.format("Could not index holiday %s of region %s", holidayId, region), e);
+            }
+        }
+        return new HolidayIndex(firstYear, firstEpochDay, endEpochDay, occurrences);
+    }
+
+    /**
+     * Get the first indexed year.
+     *
+     * @return The first indexed year.
+     */
+    public int getFirstYear() {
+        return firstYear;
+    }
+
+    /**
+     * Whether the index can answer for an excluded date on a day.
+     *
+     * @param excludedDate The excluded date, which has to be a holiday to be indexed.
+     * @param epochDay     The day to check.
+     * @return true if {@link #contains} can be used.
+     */
+    public boolean covers(ExcludedDate excludedDate, int epochDay) {
+        return epochDay >= firstEpochDay && epochDay < endEpochDay && occurrencesOf(excludedDate) != null;
+    }
+
+    /**
+     * Whether the holiday of an excluded date occurs on a day.
+     *
+     * @param excludedDate The excluded date, which has to be covered by the index on that day.
+     * @param epochDay     The day to check.
+     * @return true if the holiday occurs on that day.
+     */
+    public boolean contains(ExcludedDate excludedDate, int epochDay) {
+        BitSet days = occurrencesOf(excludedDate);
+        return days != null && days.get(epochDay - firstEpochDay);
+    }
+
+    /**
+     * Visit every indexed day on which the holiday of an excluded date occurs.
+     *
+     * @param excludedDate The excluded date.
+     * @param action       Called with the epoch day of each occurrence.
+     */
+    public void forEachOccurrence(ExcludedDate excludedDate, IntConsumer action) {
+        BitSet days = occurrencesOf(excludedDate);
+        if (days == null) {
+            return;
+        }
+        for (int day = days.nextSetBit(0); day >= 0; day = days.nextSetBit(day + 1)) {
+            action.accept(firstEpochDay + day);
+        }
+    }
+
+    private BitSet occurrencesOf(ExcludedDate excludedDate) {
+        if (excludedDate.getType() != DateType.TYPE_HOLIDAY.getValue()) {
+            return null;
+        }
+        Map<String, BitSet> regionOccurrences = occurrences.get(excludedDate.getHolidayRegion());
+        return regionOccurrences == null ? null : regionOccurrences.get(excludedDate.getHolidayId());
+    }
+}
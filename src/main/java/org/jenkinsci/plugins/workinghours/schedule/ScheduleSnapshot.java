@@ -0,0 +1,558 @@
+package org.jenkinsci.plugins.workinghours.schedule;
+
+import org.jenkinsci.plugins.workinghours.model.BlackoutWindow;
+import org.jenkinsci.plugins.workinghours.model.ExcludedDate;
+import org.jenkinsci.plugins.workinghours.model.NodeSchedule;
+import org.jenkinsci.plugins.workinghours.model.ScheduleProfile;
+import org.jenkinsci.plugins.workinghours.model.TimeRange;
+import org.jenkinsci.plugins.workinghours.utils.TimeSource;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An immutable, precompiled view of the schedule configuration.
+ * A new snapshot is published as a whole whenever the configuration changes,
+ * so readers always see time ranges, excluded dates and blackout windows that belong together.
+ * <p>
+ * Each {@link ScheduleProfile} gets a snapshot of its own, sharing everything but the time
+ * ranges with this one. Profiles allowing the same minutes share the same snapshot.
+ * Each {@link NodeSchedule} is resolved to the snapshot of its profile when the snapshot is built.
+ */
+public final class ScheduleSnapshot {
+
+    private static final Logger LOGGER = Logger.getLogger(ScheduleSnapshot.class.getName());
+
+    public static final ScheduleSnapshot EMPTY = new ScheduleSnapshot(
+        Collections.<TimeRange>emptyList(), Collections.<ExcludedDate>emptyList());
+
+    private final List<TimeRange> timeRanges;
+    private final List<ExcludedDate> excludedDates;
+    private final List<BlackoutWindow> blackoutWindows;
+    private final List<ScheduleProfile> scheduleProfiles;
+    private final List<NodeSchedule> nodeSchedules;
+    private final WeeklySchedule weeklySchedule;
+    private final ExcludedDayCalendar excludedDays;
+    private final BlackoutIndex blackoutIndex;
+    private final ScheduleTimeline timeline;
+
+    /*Profile name -> the snapshot of its time ranges, unless they allow the same minutes as this one.*/
+    private final Map<String, ScheduleSnapshot> profiles;
+
+    /*Label or node name -> the snapshot nodes with it follow, in the order of the node schedules.*/
+    private final Map<String, ScheduleSnapshot> labels;
+
+    /*Names of missing profiles already warned about, so each is logged once per snapshot.*/
+    private final Set<String> unknownProfiles = ConcurrentHashMap.newKeySet();
+
+    private static final long NO_MEMO = Long.MIN_VALUE;
+
+    /**
+     * Memo of the exclusion verdict for a single day: the epoch day shifted left by one,
+     * with the verdict in the lowest bit. A snapshot never outlives its excluded dates,
+     * so the memo only has to be checked against the day.
+     */
+    private volatile long exclusionMemo = NO_MEMO;
+
+    /**
+     * Constructs a snapshot, copying the given lists, compiling the time ranges
+     * and the excluded days from this year on, and evaluating the next {@link ScheduleTimeline#DAYS} days.
+     *
+     * @param timeRanges    The time ranges.
+     * @param excludedDates The excluded dates.
+     */
+    public ScheduleSnapshot(List<TimeRange> timeRanges, List<ExcludedDate> excludedDates) {
+        this(timeRanges, excludedDates, null);
+    }
+
+    /**
+     * Constructs a snapshot, copying the given lists, compiling the time ranges,
+     * the excluded days from this year on and the blackout windows, and evaluating
+     * the next {@link ScheduleTimeline#DAYS} days.
+     *
+     * @param timeRanges      The time ranges.
+     * @param excludedDates   The excluded dates.
+     * @param blackoutWindows The blackout windows.
+     */
+    public ScheduleSnapshot(List<TimeRange> timeRanges, List<ExcludedDate> excludedDates,
+                            List<BlackoutWindow> blackoutWindows) {
+        this(timeRanges, excludedDates, blackoutWindows, null);
+    }
+
+    /**
+     * Constructs a snapshot, copying the given lists, compiling the time ranges of the snapshot
+     * and of each profile, the excluded days from this year on and the blackout windows, and
+     * evaluating the next {@link ScheduleTimeline#DAYS} days.
+     *
+     * @param timeRanges       The time ranges.
+     * @param excludedDates    The excluded dates.
+     * @param blackoutWindows  The blackout windows.
+     * @param scheduleProfiles The schedule profiles.
+     */
+    public ScheduleSnapshot(List<TimeRange> timeRanges, List<ExcludedDate> excludedDates,
+                            List<BlackoutWindow> blackoutWindows, List<ScheduleProfile> scheduleProfiles) {
+        this(copyOf(timeRanges), copyOf(excludedDates), copyOf(blackoutWindows), copyOf(scheduleProfiles),
+            Collections.<NodeSchedule>emptyList(), null, null, null, null, null);
+    }
+
+    /**
+     * Constructs a snapshot like {@link #ScheduleSnapshot(List, List, List)}, but leaves the excluded days
+     * to be compiled later by {@link #withExcludedDaysRecompiled()}, as that may load holiday data.
+     * Until then, days are checked against each excluded date, and there is no timeline.
+     *
+     * @param timeRanges      The time ranges.
+     * @param excludedDates   The excluded dates.
+     * @param blackoutWindows The blackout windows.
+     * @return {@link ScheduleSnapshot} The snapshot.
+     */
+    public static ScheduleSnapshot deferred(List<TimeRange> timeRanges, List<ExcludedDate> excludedDates,
+                                            List<BlackoutWindow> blackoutWindows) {
+        return deferred(timeRanges, excludedDates, blackoutWindows, null);
+    }
+
+    /**
+     * Constructs a snapshot like {@link #ScheduleSnapshot(List, List, List, List)}, but leaves the excluded days
+     * to be compiled later by {@link #withExcludedDaysRecompiled()}, as that may load holiday data.
+     * Until then, days are checked against each excluded date, and there is no timeline.
+     *
+     * @param timeRanges       The time ranges.
+     * @param excludedDates    The excluded dates.
+     * @param blackoutWindows  The blackout windows.
+     * @param scheduleProfiles The schedule profiles.
+     * @return {@link ScheduleSnapshot} The snapshot.
+     */
+    public static ScheduleSnapshot deferred(List<TimeRange> timeRanges, List<ExcludedDate> excludedDates,
+                                            List<BlackoutWindow> blackoutWindows,
+                                            List<ScheduleProfile> scheduleProfiles) {
+        return new ScheduleSnapshot(copyOf(timeRanges), copyOf(excludedDates), copyOf(blackoutWindows),
+            copyOf(scheduleProfiles), Collections.<NodeSchedule>emptyList(),
+            null, ExcludedDayCalendar.EMPTY, null, ScheduleTimeline.EMPTY, null);
+    }
+
+    private ScheduleSnapshot(List<TimeRange> timeRanges, List<ExcludedDate> excludedDates,
+                             List<BlackoutWindow> blackoutWindows, List<ScheduleProfile> scheduleProfiles,
+                             List<NodeSchedule> nodeSchedules, WeeklySchedule weeklySchedule,
+                             ExcludedDayCalendar excludedDays, BlackoutIndex blackoutIndex,
+                             ScheduleTimeline timeline, Map<String, ScheduleSnapshot> profiles) {
+        this.timeRanges = timeRanges;
+        this.excludedDates = excludedDates;
+        this.blackoutWindows = blackoutWindows;
+        this.scheduleProfiles = scheduleProfiles;
+        this.nodeSchedules = nodeSchedules;
+        this.weeklySchedule = weeklySchedule != null ? weeklySchedule : WeeklySchedule.compile(timeRanges);
+        this.excludedDays = excludedDays != null ? excludedDays : compileExcludedDays(excludedDates);
+        this.blackoutIndex = blackoutIndex != null ? blackoutIndex : BlackoutIndex.build(blackoutWindows);
+        /*Evaluated last, as it checks the schedule compiled above.*/
+        this.timeline = timeline != null ? timeline
+            : ScheduleTimeline.build(this, TimeSource.epochDay(TimeSource.epochMinute()), ScheduleTimeline.DAYS);
+        this.profiles = profiles != null ? profiles : compileProfiles();
+        this.labels = compileLabels();
+    }
+
+    /*Callers are constructors, once everything but the profiles is set.*/
+    private Map<String, ScheduleSnapshot> compileProfiles() {
+        if (scheduleProfiles.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        /*Compiled schedules are interned, so profiles allowing the same minutes find the same snapshot.*/
+        Map<WeeklySchedule, ScheduleSnapshot> byWeeklySchedule = new HashMap<>();
+        byWeeklySchedule.put(weeklySchedule, this);
+        Map<String, ScheduleSnapshot> compiled = new HashMap<>();
+        for (ScheduleProfile profile : scheduleProfiles) {
+            WeeklySchedule schedule = WeeklySchedule.compile(profile.getTimeRanges());
+            ScheduleSnapshot view = byWeeklySchedule.get(schedule);
+            if (view == null) {
+                view = new ScheduleSnapshot(copyOf(profile.getTimeRanges()), excludedDates, blackoutWindows,
+                    Collections.<ScheduleProfile>emptyList(), Collections.<NodeSchedule>emptyList(),
+                    schedule, excludedDays, blackoutIndex,
+                    timeline == ScheduleTimeline.EMPTY ? ScheduleTimeline.EMPTY : null,
+                    Collections.<String, ScheduleSnapshot>emptyMap());
+                byWeeklySchedule.put(schedule, view);
+            }
+            /*Left out for this snapshot, so the map can be shared by copies that only differ otherwise.*/
+            if (view != this) {
+                compiled.put(profile.getName(), view);
+            }
+        }
+        return Collections.unmodifiableMap(compiled);
+    }
+
+    /*Callers are constructors, once the profiles are compiled.*/
+    private Map<String, ScheduleSnapshot> compileLabels() {
+        if (nodeSchedules.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, ScheduleSnapshot> compiled = new LinkedHashMap<>();
+        for (NodeSchedule nodeSchedule : nodeSchedules) {
+            compiled.putIfAbsent(nodeSchedule.getLabel(), forProfile(nodeSchedule.getProfile()));
+        }
+        return Collections.unmodifiableMap(compiled);
+    }
+
+    private static ExcludedDayCalendar compileExcludedDays(List<ExcludedDate> excludedDates) {
+        return excludedDates.isEmpty()
+            ? ExcludedDayCalendar.EMPTY
+            : ExcludedDayCalendar.build(excludedDates, TimeSource.currentYear());
+    }
+
+    private static <T> List<T> copyOf(List<T> source) {
+        return source == null || source.isEmpty()
+            ? Collections.<T>emptyList()
+            : Collections.unmodifiableList(new ArrayList<>(source));
+    }
+
+    /**
+     * Get a copy of this snapshot with the time ranges replaced.
+     *
+     * @param value The new time ranges.
+     * @return {@link ScheduleSnapshot} The new snapshot.
+     */
+    public ScheduleSnapshot withTimeRanges(List<TimeRange> value) {
+        return new ScheduleSnapshot(copyOf(value), this.excludedDates, this.blackoutWindows,
+            this.scheduleProfiles, this.nodeSchedules, null, this.excludedDays, this.blackoutIndex, null, null);
+    }
+
+    /**
+     * Get a copy of this snapshot with the time ranges replaced, when the caller knows
+     * which ones changed, such as when a single one is added, updated or deleted.
+     * Only the days of those are compiled into the weekly schedule.
+     *
+     * @param value   The new time ranges.
+     * @param added   The time ranges in the new list but not in this snapshot's.
+     * @param removed The time ranges in this snapshot's list but not in the new one.
+     * @return {@link ScheduleSnapshot} The new snapshot.
+     */
+    public ScheduleSnapshot withTimeRanges(List<TimeRange> value, Collection<TimeRange> added,
+                                           Collection<TimeRange> removed) {
+        List<TimeRange> timeRanges = copyOf(value);
+        return new ScheduleSnapshot(timeRanges, this.excludedDates, this.blackoutWindows,
+            this.scheduleProfiles, this.nodeSchedules, this.weeklySchedule.withChanges(timeRanges, added, removed),
+            this.excludedDays, this.blackoutIndex, null, null);
+    }
+
+    /**
+     * Get a copy of this snapshot with the excluded dates replaced.
+     * The compiled time ranges are shared with this snapshot, and only the excluded dates
+     * that were added or removed are compiled into the excluded days.
+     *
+     * @param value The new excluded dates.
+     * @return {@link ScheduleSnapshot} The new snapshot.
+     */
+    public ScheduleSnapshot withExcludedDates(List<ExcludedDate> value) {
+        List<ExcludedDate> excludedDates = copyOf(value);
+        if (!isIncremental(excludedDates)) {
+            return withExcludedDates(excludedDates, null);
+        }
+        /*An edited excluded date is a new instance, so the same instance means the same date.*/
+        Map<ExcludedDate, Integer> removed = new IdentityHashMap<>();
+        for (ExcludedDate excludedDate : this.excludedDates) {
+            removed.merge(excludedDate, 1, Integer::sum);
+        }
+        List<ExcludedDate> added = new ArrayList<>();
+        for (ExcludedDate excludedDate : excludedDates) {
+            Integer count = removed.get(excludedDate);
+            if (count == null) {
+                added.add(excludedDate);
+            } else if (count == 1) {
+                removed.remove(excludedDate);
+            } else {
+                removed.put(excludedDate, count - 1);
+            }
+        }
+        List<ExcludedDate> removedDates = new ArrayList<>();
+        for (Map.Entry<ExcludedDate, Integer> entry : removed.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                removedDates.add(entry.getKey());
+            }
+        }
+        return withExcludedDatesChanged(excludedDates, added, removedDates);
+    }
+
+    /**
+     * Get a copy of this snapshot with the excluded dates replaced, when the caller knows
+     * which ones changed, such as when a single one is added, updated or deleted.
+     * Only those are compiled into the excluded days.
+     *
+     * @param value   The new excluded dates.
+     * @param added   The excluded dates in the new list but not in this snapshot's.
+     * @param removed The excluded dates in this snapshot's list but not in the new one.
+     * @return {@link ScheduleSnapshot} The new snapshot.
+     */
+    public ScheduleSnapshot withExcludedDates(List<ExcludedDate> value, Collection<ExcludedDate> added,
+                                              Collection<ExcludedDate> removed) {
+        return withExcludedDatesChanged(copyOf(value), added, removed);
+    }
+
+    private ScheduleSnapshot withExcludedDatesChanged(List<ExcludedDate> excludedDates, Collection<ExcludedDate> added,
+                                                      Collection<ExcludedDate> removed) {
+        /*Past a certain number of changes, compiling everything again is cheaper.*/
+        if (!isIncremental(excludedDates) || added.size() + removed.size() > excludedDates.size()) {
+            return withExcludedDates(excludedDates, null);
+        }
+        try {
+            return withExcludedDates(excludedDates, this.excludedDays.withChanges(added, removed));
+        } catch (IllegalStateException e) {
+            LOGGER.log(Level.WARNING, "Compiling all excluded dates again, the changes did not match the compiled days", e);
+            return withExcludedDates(excludedDates, null);
+        }
+    }
+
+    /*Whether the excluded days can be updated rather than compiled again for the given excluded dates.*/
+    private boolean isIncremental(List<ExcludedDate> excludedDates) {
+        return this.excludedDays != ExcludedDayCalendar.EMPTY && !excludedDates.isEmpty()
+            && this.excludedDays.getFirstYear() == TimeSource.currentYear();
+    }
+
+    private ScheduleSnapshot withExcludedDates(List<ExcludedDate> excludedDates, ExcludedDayCalendar excludedDays) {
+        return new ScheduleSnapshot(this.timeRanges, excludedDates, this.blackoutWindows,
+            this.scheduleProfiles, this.nodeSchedules, this.weeklySchedule, excludedDays, this.blackoutIndex,
+            null, null);
+    }
+
+    /**
+     * Get a copy of this snapshot with the excluded days compiled again from this year on.
+     *
+     * @return {@link ScheduleSnapshot} The new snapshot.
+     */
+    public ScheduleSnapshot withExcludedDaysRecompiled() {
+        return new ScheduleSnapshot(this.timeRanges, this.excludedDates, this.blackoutWindows,
+            this.scheduleProfiles, this.nodeSchedules, this.weeklySchedule, null, this.blackoutIndex, null, null);
+    }
+
+    /**
+     * Get a copy of this snapshot whose timeline starts today, so it keeps covering the next few days.
+     * Everything else is shared with this snapshot.
+     *
+     * @return {@link ScheduleSnapshot} The new snapshot.
+     */
+    public ScheduleSnapshot withTimelineExtended() {
+        return new ScheduleSnapshot(this.timeRanges, this.excludedDates, this.blackoutWindows,
+            this.scheduleProfiles, this.nodeSchedules, this.weeklySchedule, this.excludedDays, this.blackoutIndex,
+            null, null);
+    }
+
+    /**
+     * Get a copy of this snapshot with the blackout windows replaced.
+     * The compiled time ranges and excluded days are shared with this snapshot.
+     *
+     * @param value The new blackout windows.
+     * @return {@link ScheduleSnapshot} The new snapshot.
+     */
+    public ScheduleSnapshot withBlackoutWindows(List<BlackoutWindow> value) {
+        return new ScheduleSnapshot(this.timeRanges, this.excludedDates, copyOf(value),
+            this.scheduleProfiles, this.nodeSchedules, this.weeklySchedule, this.excludedDays, null, null, null);
+    }
+
+    /**
+     * Get a copy of this snapshot with the schedule profiles replaced.
+     * Everything else is shared with this snapshot.
+     *
+     * @param value The new schedule profiles.
+     * @return {@link ScheduleSnapshot} The new snapshot.
+     */
+    public ScheduleSnapshot withScheduleProfiles(List<ScheduleProfile> value) {
+        return new ScheduleSnapshot(this.timeRanges, this.excludedDates, this.blackoutWindows, copyOf(value),
+            this.nodeSchedules, this.weeklySchedule, this.excludedDays, this.blackoutIndex, this.timeline, null);
+    }
+
+    /**
+     * Get a copy of this snapshot with the node schedules replaced.
+     * Everything else is shared with this snapshot.
+     *
+     * @param value The new node schedules.
+     * @return {@link ScheduleSnapshot} The new snapshot.
+     */
+    public ScheduleSnapshot withNodeSchedules(List<NodeSchedule> value) {
+        return new ScheduleSnapshot(this.timeRanges, this.excludedDates, this.blackoutWindows, this.scheduleProfiles,
+            copyOf(value), this.weeklySchedule, this.excludedDays, this.blackoutIndex, this.timeline, this.profiles);
+    }
+
+    /**
+     * Judge whether a day should be excluded according to any of the excluded dates.
+     * Days outside of the compiled years are evaluated against each excluded date,
+     * and the verdict is remembered for the most recently checked one.
+     *
+     * @param epochDay The day to check, as an epoch day.
+     * @return true if the day is excluded.
+     */
+    public boolean isExcluded(int epochDay) {
+        if (excludedDays.covers(epochDay)) {
+            return excludedDays.contains(epochDay);
+        }
+        long memo = this.exclusionMemo;
+        if (memo != NO_MEMO && (memo >> 1) == epochDay) {
+            return (memo & 1) != 0;
+        }
+        boolean excluded = evaluateExcluded(epochDay);
+        this.exclusionMemo = ((long) epochDay << 1) | (excluded ? 1 : 0);
+        return excluded;
+    }
+
+    private boolean evaluateExcluded(int epochDay) {
+        for (ExcludedDate excludedDate : excludedDates) {
+            if (excludedDate.excludes(epochDay)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the time ranges.
+     *
+     * @return An unmodifiable list of time ranges.
+     */
+    public List<TimeRange> getTimeRanges() {
+        return timeRanges;
+    }
+
+    /**
+     * Get the excluded dates.
+     *
+     * @return An unmodifiable list of excluded dates.
+     */
+    public List<ExcludedDate> getExcludedDates() {
+        return excludedDates;
+    }
+
+    /**
+     * Get the compiled time ranges.
+     *
+     * @return {@link WeeklySchedule} The compiled time ranges.
+     */
+    public WeeklySchedule getWeeklySchedule() {
+        return weeklySchedule;
+    }
+
+    /**
+     * Get the compiled excluded days.
+     *
+     * @return {@link ExcludedDayCalendar} The excluded days.
+     */
+    public ExcludedDayCalendar getExcludedDays() {
+        return excludedDays;
+    }
+
+    /**
+     * Whether the excluded dates have been compiled into the excluded days.
+     *
+     * @return false if the snapshot was {@link #deferred} and not recompiled since.
+     */
+    public boolean isExcludedDaysCompiled() {
+        return excludedDates.isEmpty() || excludedDays != ExcludedDayCalendar.EMPTY;
+    }
+
+    /**
+     * Get the verdicts over the next few days.
+     *
+     * @return {@link ScheduleTimeline} The timeline, which is empty if the snapshot was {@link #deferred}.
+     */
+    public ScheduleTimeline getTimeline() {
+        return timeline;
+    }
+
+    /**
+     * Get the schedule profiles.
+     *
+     * @return An unmodifiable list of schedule profiles.
+     */
+    public List<ScheduleProfile> getScheduleProfiles() {
+        return scheduleProfiles;
+    }
+
+    /**
+     * Get the snapshot a job enforcing a schedule profile is checked against.
+     *
+     * @param name The name of the profile, or null for the global time ranges.
+     * @return {@link ScheduleSnapshot} The profile's snapshot, or this one if there is no such profile.
+     */
+    public ScheduleSnapshot forProfile(String name) {
+        if (name == null) {
+            return this;
+        }
+        ScheduleSnapshot profile = profiles.get(name);
+        if (profile != null) {
+            return profile;
+        }
+        if (!hasProfile(name) && unknownProfiles.add(name)) {
+            LOGGER.log(Level.WARNING, "There is no schedule profile named {0}, the global time ranges apply instead", name);
+        }
+        return this;
+    }
+
+    /**
+     * Whether there is a schedule profile with a name.
+     *
+     * @param name The name of the profile.
+     * @return true if one of the schedule profiles has that name.
+     */
+    public boolean hasProfile(String name) {
+        for (ScheduleProfile profile : scheduleProfiles) {
+            if (profile.getName().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the node schedules.
+     *
+     * @return An unmodifiable list of node schedules.
+     */
+    public List<NodeSchedule> getNodeSchedules() {
+        return nodeSchedules;
+    }
+
+    /**
+     * Get the snapshot a node is restricted to.
+     * A node schedule for the node's name comes first, then the first one for any of its labels.
+     *
+     * @param nodeName The name of the node.
+     * @param labels   The labels of the node.
+     * @return {@link ScheduleSnapshot} The snapshot the node follows, or null if it is not restricted.
+     */
+    public ScheduleSnapshot forNode(String nodeName, Collection<String> labels) {
+        if (this.labels.isEmpty()) {
+            return null;
+        }
+        ScheduleSnapshot byName = this.labels.get(nodeName);
+        if (byName != null) {
+            return byName;
+        }
+        for (Map.Entry<String, ScheduleSnapshot> entry : this.labels.entrySet()) {
+            if (labels.contains(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the blackout windows.
+     *
+     * @return An unmodifiable list of blackout windows.
+     */
+    public List<BlackoutWindow> getBlackoutWindows() {
+        return blackoutWindows;
+    }
+
+    /**
+     * Get the merged blackout windows.
+     *
+     * @return {@link BlackoutIndex} The blackout index.
+     */
+    public BlackoutIndex getBlackoutIndex() {
+        return blackoutIndex;
+    }
+}
@@ -0,0 +1,108 @@
+package org.jenkinsci.plugins.workinghours.schedule;
+
+import java.util.Arrays;
+
+/**
+ * The verdicts of a {@link ScheduleSnapshot} over the next few days, precomputed as sorted spans
+ * of local epoch minutes in which the verdict does not change.
+ * Looking up a moment inside the timeline is one binary search, with no calendar math: the
+ * time ranges, excluded dates and blackout windows have all been evaluated when it was built.
+ * Consecutive spans with the same verdict are merged, so a verdict lasts until the schedule
+ * really changes, such as over a whole weekend.
+ * Instances are immutable once built.
+ */
+public final class ScheduleTimeline {
+
+    /**
+     * How many days a timeline covers, from the day it is built on.
+     */
+    public static final int DAYS = Math.max(1, Integer.getInteger(ScheduleTimeline.class.getName() + ".days", 14));
+
+    public static final ScheduleTimeline EMPTY = new ScheduleTimeline(0, 0, new long[0], new byte[0]);
+
+    private static final byte BLOCKED = 0;
+    private static final byte ALLOWED = 1;
+    private static final byte EXCLUDED = 2;
+
+    private final long from;
+    private final long until;
+
+    /*The verdict states[i] holds from starts[i] inclusive to starts[i + 1], or until, exclusive.*/
+    private final long[] starts;
+    private final byte[] states;
+
+    private ScheduleTimeline(long from, long until, long[] starts, byte[] states) {
+        this.from = from;
+        this.until = until;
+        this.starts = starts;
+        this.states = states;
+    }
+
+    /**
+     * Build the timeline of a snapshot.
+     *
+     * @param snapshot The snapshot to evaluate.
+     * @param firstDay The first day to cover, as an epoch day.
+     * @param days     How many days to cover.
+     * @return {@link ScheduleTimeline} The timeline.
+     */
+    public static ScheduleTimeline build(ScheduleSnapshot snapshot, int firstDay, int days) {
+        long from = (long) firstDay * WeeklySchedule.MINUTES_PER_DAY;
+        long until = from + (long) days * WeeklySchedule.MINUTES_PER_DAY;
+        long[] starts = new long[16];
+        byte[] states = new byte[16];
+        int size = 0;
+        for (long minute = from; minute < until; ) {
+            ScheduleVerdictCache.Verdict verdict = ScheduleVerdictCache.evaluate(snapshot, minute);
+            byte state = verdict.isExcluded() ? EXCLUDED : verdict.isAllowed() ? ALLOWED : BLOCKED;
+            if (size == 0 || states[size - 1] != state) {
+                if (size == starts.length) {
+                    starts = Arrays.copyOf(starts, size * 2);
+                    states = Arrays.copyOf(states, size * 2);
+                }
+                starts[size] = minute;
+                states[size] = state;
+                size++;
+            }
+            minute = verdict.getValidUntil();
+        }
+        return new ScheduleTimeline(from, until, Arrays.copyOf(starts, size), Arrays.copyOf(states, size));
+    }
+
+    /**
+     * Whether a moment is inside the timeline.
+     *
+     * @param epochMinute The moment, as a local epoch minute.
+     * @return true if the timeline has the verdict for that moment.
+     */
+    public boolean covers(long epochMinute) {
+        return epochMinute >= from && epochMinute < until;
+    }
+
+    /**
+     * Get the first moment after the timeline.
+     *
+     * @return Local epoch minute the timeline ends at, exclusive.
+     */
+    public long getUntil() {
+        return until;
+    }
+
+    /**
+     * Get the verdict at a moment inside the timeline.
+     * It lasts until the next change, or the end of the timeline.
+     *
+     * @param snapshot    The snapshot the timeline was built from.
+     * @param epochMinute The moment, which has to be {@link #covers covered}.
+     * @return {@link ScheduleVerdictCache.Verdict} The verdict at that moment.
+     */
+    ScheduleVerdictCache.Verdict verdictAt(ScheduleSnapshot snapshot, long epochMinute) {
+        int index = Arrays.binarySearch(starts, epochMinute);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        long validUntil = index + 1 < starts.length ? starts[index + 1] : until;
+        byte state = states[index];
+        return new ScheduleVerdictCache.Verdict(snapshot, state == EXCLUDED, state == ALLOWED, epochMinute, validUntil);
+    }
+}
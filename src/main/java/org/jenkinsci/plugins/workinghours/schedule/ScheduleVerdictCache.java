@@ -0,0 +1,111 @@
+package org.jenkinsci.plugins.workinghours.schedule;
+
+import org.jenkinsci.plugins.workinghours.utils.TimeSource;
+
+/**
+ * Caches the global allowed/blocked verdict of the schedule.
+ * The verdict can only change when a time range or blackout window starts or ends, or at
+ * midnight when an excluded date may begin or end, so it is computed once and served until
+ * the next of those transitions, or until the snapshot it was computed from is replaced.
+ * Moments inside the snapshot's {@link ScheduleTimeline} are looked up there rather than evaluated.
+ * <p>
+ * Moments are local epoch minutes as given by {@link TimeSource#epochMinute()}.
+ */
+public final class ScheduleVerdictCache {
+
+    private volatile Verdict verdict;
+
+    /**
+     * Get the verdict for the given moment, recomputing it only if the cached one has expired.
+     *
+     * @param snapshot    {@link ScheduleSnapshot} The configuration to evaluate.
+     * @param epochMinute The moment to check, as a local epoch minute.
+     * @return {@link Verdict} The verdict at that moment.
+     */
+    public Verdict lookup(ScheduleSnapshot snapshot, long epochMinute) {
+        Verdict cached = this.verdict;
+        if (cached != null
+            && cached.snapshot == snapshot
+            && epochMinute >= cached.validFrom
+            && epochMinute < cached.validUntil) {
+            return cached;
+        }
+        ScheduleTimeline timeline = snapshot.getTimeline();
+        cached = timeline.covers(epochMinute)
+            ? timeline.verdictAt(snapshot, epochMinute)
+            : evaluate(snapshot, epochMinute);
+        this.verdict = cached;
+        return cached;
+    }
+
+    static Verdict evaluate(ScheduleSnapshot snapshot, long epochMinute) {
+        int epochDay = TimeSource.epochDay(epochMinute);
+        int minuteOfDay = TimeSource.minuteOfDay(epochMinute);
+        long midnight = (epochDay + 1L) * WeeklySchedule.MINUTES_PER_DAY;
+
+        /*Inside a blackout window, nothing can change before the window, merged with any it touches, is over.*/
+        BlackoutIndex blackouts = snapshot.getBlackoutIndex();
+        if (blackouts.contains(epochMinute)) {
+            return new Verdict(snapshot, true, false, epochMinute, blackouts.nextFree(epochMinute));
+        }
+
+        if (snapshot.isExcluded(epochDay)) {
+            return new Verdict(snapshot, true, false, epochMinute, midnight);
+        }
+
+        int minuteOfWeek = TimeSource.dayOfWeek(epochDay) * WeeklySchedule.MINUTES_PER_DAY + minuteOfDay;
+        WeeklySchedule schedule = snapshot.getWeeklySchedule();
+        boolean allowed = schedule.isAllowed(minuteOfWeek);
+
+        /*The verdict never outlives today, as tomorrow may be excluded, nor the next blackout window.*/
+        long validUntil = Math.min(Math.min(midnight, blackouts.nextChange(epochMinute)),
+            epochMinute + schedule.minutesUntilChange(minuteOfWeek));
+        return new Verdict(snapshot, false, allowed, epochMinute, validUntil);
+    }
+
+    /**
+     * The verdict of the schedule for a span of time in which it cannot change.
+     */
+    public static final class Verdict {
+        private final ScheduleSnapshot snapshot;
+        private final boolean excluded;
+        private final boolean allowed;
+        private final long validFrom;
+        private final long validUntil;
+
+        Verdict(ScheduleSnapshot snapshot, boolean excluded, boolean allowed, long validFrom, long validUntil) {
+            this.snapshot = snapshot;
+            this.excluded = excluded;
+            this.allowed = allowed;
+            this.validFrom = validFrom;
+            this.validUntil = validUntil;
+        }
+
+        /**
+         * Whether today is excluded by one of the excluded dates, or now is inside a blackout window.
+         *
+         * @return true if now is excluded.
+         */
+        public boolean isExcluded() {
+            return excluded;
+        }
+
+        /**
+         * Whether builds are allowed, meaning now is not excluded and is inside a time range.
+         *
+         * @return true if builds are allowed.
+         */
+        public boolean isAllowed() {
+            return allowed;
+        }
+
+        /**
+         * Get the moment at which the verdict may change.
+         *
+         * @return Local epoch minute of the next transition.
+         */
+        public long getValidUntil() {
+            return validUntil;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package org.jenkinsci.plugins.workinghours.schedule;
+
+import org.jenkinsci.plugins.workinghours.model.TimeRange;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A compiled form of a list of {@link TimeRange}, one bit per minute of the week.
+ * Checking whether a minute is allowed is a single bit test and does not allocate.
+ * Instances are immutable once compiled, and interned: time ranges that allow the same
+ * minutes compile to the same instance, however many profiles or snapshots use them.
+ */
+public final class WeeklySchedule {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    public static final int DAYS_PER_WEEK = 7;
+    public static final int MINUTES_PER_WEEK = MINUTES_PER_DAY * DAYS_PER_WEEK;
+
+    private static final int WORDS = (MINUTES_PER_WEEK + Long.SIZE - 1) / Long.SIZE;
+
+    /*Compiled schedules by content; an entry goes away once nothing else refers to its schedule.*/
+    private static final Map<WeeklySchedule, WeakReference<WeeklySchedule>> INTERNED = new WeakHashMap<>();
+
+    /*Bit n is set when minute n of the week (counting from Sunday 00:00) is allowed.*/
+    private final long[] bits;
+
+    private WeeklySchedule(long[] bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * Compile a list of time ranges into a weekly minute bitmap.
+     * Ranges are inclusive on both ends, the same as {@link TimeRange#includesTime}.
+     *
+     * @param timeRanges The time ranges to compile.
+     * @return {@link WeeklySchedule} The compiled schedule, shared with any other one allowing the same minutes.
+     */
+    public static WeeklySchedule compile(List<TimeRange> timeRanges) {
+        long[] bits = new long[WORDS];
+        for (TimeRange timeRange : timeRanges) {
+            set(bits, timeRange);
+        }
+        return intern(new WeeklySchedule(bits));
+    }
+
+    /**
+     * Get the schedule compiled from a list of time ranges that differs from the one this
+     * schedule was compiled from by a few added and removed ones.
+     * Only the days of the removed time ranges are compiled again, from the new list, as
+     * other time ranges of those days may overlap them; added ones are set on top.
+     *
+     * @param timeRanges The new time ranges.
+     * @param added      The time ranges in the new list but not in the old one.
+     * @param removed    The time ranges in the old list but not in the new one.
+     * @return {@link WeeklySchedule} The compiled schedule, the same as {@link #compile} of the new list.
+     */
+    public WeeklySchedule withChanges(List<TimeRange> timeRanges, Collection<TimeRange> added,
+                                      Collection<TimeRange> removed) {
+        long[] bits = this.bits.clone();
+        boolean[] cleared = new boolean[DAYS_PER_WEEK];
+        for (TimeRange timeRange : removed) {
+            int dayOfWeek = timeRange.getDayOfWeek();
+            if (dayOfWeek >= 0 && dayOfWeek < DAYS_PER_WEEK && !cleared[dayOfWeek]) {
+                cleared[dayOfWeek] = true;
+                clearRange(bits, dayOfWeek * MINUTES_PER_DAY, (dayOfWeek + 1) * MINUTES_PER_DAY - 1);
+            }
+        }
+        for (TimeRange timeRange : timeRanges) {
+            int dayOfWeek = timeRange.getDayOfWeek();
+            if (dayOfWeek >= 0 && dayOfWeek < DAYS_PER_WEEK && cleared[dayOfWeek]) {
+                set(bits, timeRange);
+            }
+        }
+        for (TimeRange timeRange : added) {
+            set(bits, timeRange);
+        }
+        return intern(new WeeklySchedule(bits));
+    }
+
+    /*Set the bits of a time range, unless it is out of the week or ends before it starts.*/
+    private static void set(long[] bits, TimeRange timeRange) {
+        int dayOfWeek = timeRange.getDayOfWeek();
+        int start = timeRange.getStartTime();
+        int end = Math.min(timeRange.getEndTime(), MINUTES_PER_DAY - 1);
+        if (dayOfWeek < 0 || dayOfWeek >= DAYS_PER_WEEK || start < 0 || start > end) {
+            return;
+        }
+        int offset = dayOfWeek * MINUTES_PER_DAY;
+        setRange(bits, offset + start, offset + end);
+    }
+
+    private static WeeklySchedule intern(WeeklySchedule schedule) {
+        synchronized (INTERNED) {
+            WeakReference<WeeklySchedule> reference = INTERNED.get(schedule);
+            WeeklySchedule interned = reference == null ? null : reference.get();
+            if (interned == null) {
+                INTERNED.put(schedule, new WeakReference<>(schedule));
+                interned = schedule;
+            }
+            return interned;
+        }
+    }
+
+    /*Set bits from..to, both inclusive.*/
+    private static void setRange(long[] bits, int from, int to) {
+        int fromWord = from >>> 6;
+        int toWord = to >>> 6;
+        long fromMask = -1L << from;
+        long toMask = -1L >>> (Long.SIZE - 1 - (to & 63));
+        if (fromWord == toWord) {
+            bits[fromWord] |= fromMask & toMask;
+            return;
+        }
+        bits[fromWord] |= fromMask;
+        for (int i = fromWord + 1; i < toWord; i++) {
+            bits[i] = -1L;
+        }
+        bits[toWord] |= toMask;
+    }
+
+    /*Clear bits from..to, both inclusive.*/
+    private static void clearRange(long[] bits, int from, int to) {
+        int fromWord = from >>> 6;
+        int toWord = to >>> 6;
+        long fromMask = -1L << from;
+        long toMask = -1L >>> (Long.SIZE - 1 - (to & 63));
+        if (fromWord == toWord) {
+            bits[fromWord] &= ~(fromMask & toMask);
+            return;
+        }
+        bits[fromWord] &= ~fromMask;
+        for (int i = fromWord + 1; i < toWord; i++) {
+            bits[i] = 0L;
+        }
+        bits[toWord] &= ~toMask;
+    }
+
+    /**
+     * Check whether a minute of a day is allowed.
+     *
+     * @param dayOfWeek   Day of week, ranging from 0 to 6, indicating from Sunday to Saturday.
+     * @param minuteOfDay Minutes from 00:00.
+     * @return true if the minute is inside one of the compiled time ranges.
+     */
+    public boolean isAllowed(int dayOfWeek, int minuteOfDay) {
+        return isAllowed(dayOfWeek * MINUTES_PER_DAY + minuteOfDay);
+    }
+
+    /**
+     * Check whether a minute of the week is allowed.
+     *
+     * @param minuteOfWeek Minutes from Sunday 00:00.
+     * @return true if the minute is inside one of the compiled time ranges.
+     */
+    public boolean isAllowed(int minuteOfWeek) {
+        return (bits[minuteOfWeek >>> 6] & (1L << minuteOfWeek)) != 0;
+    }
+
+    /**
+     * Get the distance to the next minute whose allowed state differs from the given one,
+     * wrapping around the end of the week.
+     *
+     * @param minuteOfWeek Minutes from Sunday 00:00.
+     * @return Minutes until the state changes, or {@link #MINUTES_PER_WEEK} if it never does.
+     */
+    public int minutesUntilChange(int minuteOfWeek) {
+        boolean current = isAllowed(minuteOfWeek);
+        int scanned = 1;
+        int position = (minuteOfWeek + 1) % MINUTES_PER_WEEK;
+        while (scanned < MINUTES_PER_WEEK) {
+            int word = position >>> 6;
+            int wordEnd = Math.min((word + 1) << 6, MINUTES_PER_WEEK);
+            long candidates = (current ? ~bits[word] : bits[word]) & (-1L << position);
+            if (candidates != 0) {
+                int found = (word << 6) + Long.numberOfTrailingZeros(candidates);
+                if (found < wordEnd) {
+                    return scanned + found - position;
+                }
+            }
+            scanned += wordEnd - position;
+            position = wordEnd == MINUTES_PER_WEEK ? 0 : wordEnd;
+        }
+        return MINUTES_PER_WEEK;
+    }
+
+    /**
+     * Whether no minute of the week is allowed at all.
+     *
+     * @return true if the schedule is empty.
+     */
+    public boolean isEmpty() {
+        for (long word : bits) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof WeeklySchedule && Arrays.equals(bits, ((WeeklySchedule) o).bits);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bits);
+    }
+}
@@ -0,0 +1,500 @@
+package org.jenkinsci.plugins.workinghours.utils;
+
+import org.jenkinsci.plugins.workinghours.model.BlackoutWindow;
+import org.jenkinsci.plugins.workinghours.model.DateType;
+import org.jenkinsci.plugins.workinghours.model.ExcludedDate;
+import org.jenkinsci.plugins.workinghours.model.NodeSchedule;
+import org.jenkinsci.plugins.workinghours.model.RepeatPeriod;
+import org.jenkinsci.plugins.workinghours.model.ScheduleProfile;
+import org.jenkinsci.plugins.workinghours.model.TimeRange;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The configuration of the plugin in a compact, versioned binary file, which is smaller than
+ * the XStream XML and read in a single pass, without reflection.
+ * <p>
+ * Every string, such as a name, a region or an id, is written once into a string table at the
+ * start and referred to by its index. Dates are epoch days, moments are epoch seconds, and
+ * enums are their ordinals. The date of an {@link ExcludedDate.Date} is kept as the epoch day of
+ * its date part plus the rest of the text, such as {@code T00:00:00Z}, which is the same for
+ * nearly all dates, so it is restored exactly as it was entered.
+ * <p>
+ * Layout, big endian: magic, format version, string count, strings, then the time ranges,
+ * excluded dates, blackout windows, schedule profiles and node schedules, each as a count
+ * followed by the entries. Counts, indexes and numbers are variable length, signed ones
+ * zig-zag encoded. A string index of 0 stands for null. Strings are written as by
+ * {@link DataOutputStream#writeUTF}.
+ * A repeat period of {@value #NO_REPEAT_PERIOD} stands for none.
+ * <p>
+ * The file is read as a stream, counting the bytes read, so a count that could not fit in the
+ * rest of the file, as in a corrupt one, is rejected before anything is allocated for it.
+ */
+public final class CompactConfig {
+
+    private static final int MAGIC = 0x57484346;
+    private static final int FORMAT_VERSION = 1;
+
+    /*Flags of an excluded date.*/
+    private static final int NO_END = 1;
+    private static final int REPEAT = 1 << 1;
+
+    /*Flags of an excluded date's date, 0 if there is none.*/
+    private static final int PRESENT = 1;
+    private static final int DYNAMIC = 1 << 1;
+    private static final int RAW = 1 << 2;
+
+    /*The ordinal written for an excluded date without a repeat period.*/
+    private static final int NO_REPEAT_PERIOD = 0xFF;
+
+    private final List<TimeRange> timeRanges;
+    private final List<ExcludedDate> excludedDates;
+    private final List<BlackoutWindow> blackoutWindows;
+    private final List<ScheduleProfile> scheduleProfiles;
+    private final List<NodeSchedule> nodeSchedules;
+
+    /**
+     * Constructs a CompactConfig object. Null lists are taken as empty.
+     *
+     * @param timeRanges       The time ranges.
+     * @param excludedDates    The excluded dates.
+     * @param blackoutWindows  The blackout windows.
+     * @param scheduleProfiles The schedule profiles.
+     * @param nodeSchedules    The node schedules.
+     */
+    public CompactConfig(List<TimeRange> timeRanges, List<ExcludedDate> excludedDates,
+                         List<BlackoutWindow> blackoutWindows, List<ScheduleProfile> scheduleProfiles,
+                         List<NodeSchedule> nodeSchedules) {
+        this.timeRanges = orEmpty(timeRanges);
+        this.excludedDates = orEmpty(excludedDates);
+        this.blackoutWindows = orEmpty(blackoutWindows);
+        this.scheduleProfiles = orEmpty(scheduleProfiles);
+        this.nodeSchedules = orEmpty(nodeSchedules);
+    }
+
+    private static <T> List<T> orEmpty(List<T> value) {
+        return value == null ? Collections.<T>emptyList() : value;
+    }
+
+    public List<TimeRange> getTimeRanges() {
+        return timeRanges;
+    }
+
+    public List<ExcludedDate> getExcludedDates() {
+        return excludedDates;
+    }
+
+    public List<BlackoutWindow> getBlackoutWindows() {
+        return blackoutWindows;
+    }
+
+    public List<ScheduleProfile> getScheduleProfiles() {
+        return scheduleProfiles;
+    }
+
+    public List<NodeSchedule> getNodeSchedules() {
+        return nodeSchedules;
+    }
+
+    /**
+     * Read a configuration file.
+     *
+     * @param file The file.
+     * @return {@link CompactConfig} The configuration.
+     * @throws IOException If the file cannot be read, is corrupt or has an unknown format version.
+     */
+    public static CompactConfig read(File file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+            return read(in, file.length());
+        }
+    }
+
+    /**
+     * Read a configuration.
+     *
+     * @param stream The stream to read from.
+     * @param length How many bytes the stream holds, which no count in it can exceed.
+     * @return {@link CompactConfig} The configuration.
+     * @throws IOException If the stream cannot be read, is corrupt or has an unknown format version.
+     */
+    public static CompactConfig read(InputStream stream, long length) throws IOException {
+        CountingInputStream counter = new CountingInputStream(stream);
+        DataInputStream in = new DataInputStream(counter);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a working hours configuration");
+        }
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unknown configuration format version " + version);
+        }
+        Reader reader = new Reader(in, counter, length);
+        try {
+            return reader.readConfig();
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt working hours configuration", e);
+        }
+    }
+
+    /**
+     * Write the configuration to a file, replacing it atomically where the file system allows it.
+     *
+     * @param file The file.
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        File temp = File.createTempFile(file.getName(), ".tmp", parent);
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp.toPath()))) {
+                write(out);
+            }
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    /**
+     * Write the configuration.
+     *
+     * @param stream The stream to write to.
+     * @throws IOException If the stream cannot be written.
+     */
+    public void write(OutputStream stream) throws IOException {
+        /*The body is written first, so the string table holds exactly the strings it refers to.*/
+        Writer writer = new Writer();
+        writer.writeConfig(this);
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        writeVarInt(out, writer.strings.size());
+        for (String string : writer.strings) {
+            out.writeUTF(string);
+        }
+        writer.body.writeTo(out);
+        out.flush();
+    }
+
+    private static final class Writer {
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(body);
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        void writeConfig(CompactConfig config) throws IOException {
+            writeTimeRanges(config.timeRanges);
+            writeVarInt(out, config.excludedDates.size());
+            for (ExcludedDate excludedDate : config.excludedDates) {
+                writeExcludedDate(excludedDate);
+            }
+            writeVarInt(out, config.blackoutWindows.size());
+            for (BlackoutWindow blackoutWindow : config.blackoutWindows) {
+                writeString(blackoutWindow.getName());
+                writeDateTime(blackoutWindow.getStart());
+                writeDateTime(blackoutWindow.getEnd());
+            }
+            writeVarInt(out, config.scheduleProfiles.size());
+            for (ScheduleProfile scheduleProfile : config.scheduleProfiles) {
+                writeString(scheduleProfile.getName());
+                writeTimeRanges(scheduleProfile.getTimeRanges());
+            }
+            writeVarInt(out, config.nodeSchedules.size());
+            for (NodeSchedule nodeSchedule : config.nodeSchedules) {
+                writeString(nodeSchedule.getLabel());
+                writeString(nodeSchedule.getProfile());
+            }
+        }
+
+        private void writeTimeRanges(List<TimeRange> timeRanges) throws IOException {
+            writeVarInt(out, timeRanges.size());
+            for (TimeRange timeRange : timeRanges) {
+                writeString(timeRange.getId());
+                writeVarInt(out, zigZag(timeRange.getStartTime()));
+                writeVarInt(out, zigZag(timeRange.getEndTime()));
+                out.writeByte(timeRange.getDayOfWeek());
+            }
+        }
+
+        private void writeExcludedDate(ExcludedDate excludedDate) throws IOException {
+            writeString(excludedDate.getId());
+            writeString(excludedDate.getName());
+            out.writeByte(DateType.valueOf(excludedDate.getType()).ordinal());
+            writeVarInt(out, zigZag(excludedDate.getUtcOffset()));
+            writeString(excludedDate.getTimezone());
+            writeDate(excludedDate.getStartDate());
+            writeDate(excludedDate.getEndDate());
+            out.writeByte((excludedDate.isNoEnd() ? NO_END : 0) | (excludedDate.isRepeat() ? REPEAT : 0));
+            writeVarInt(out, zigZag(excludedDate.getRepeatCount()));
+            out.writeByte(excludedDate.hasRepeatPeriod()
+                ? RepeatPeriod.valueOf(excludedDate.getRepeatPeriod()).ordinal()
+                : NO_REPEAT_PERIOD);
+            writeVarInt(out, zigZag(excludedDate.getRepeatInterval()));
+            writeString(excludedDate.getHolidayRegion());
+            writeString(excludedDate.getHolidayId());
+        }
+
+        private void writeDate(ExcludedDate.Date date) throws IOException {
+            if (date == null) {
+                out.writeByte(0);
+                return;
+            }
+            String text = date.getDate();
+            LocalDate localDate = parseDatePart(text);
+            out.writeByte(PRESENT | (date.isDynamic() ? DYNAMIC : 0) | (localDate == null ? RAW : 0));
+            if (localDate == null) {
+                writeString(text);
+            } else {
+                writeVarInt(out, zigZag((int) localDate.toEpochDay()));
+                writeString(text.substring(10));
+            }
+            out.writeByte(date.getDynamicMonth());
+            out.writeByte(date.getDynamicWeek());
+            out.writeByte(date.getDynamicWeekday());
+        }
+
+        private void writeDateTime(String text) throws IOException {
+            LocalDateTime dateTime = LocalDateTime.parse(text);
+            writeVarLong(out, zigZag(dateTime.toEpochSecond(ZoneOffset.UTC)));
+            writeVarInt(out, dateTime.getNano());
+        }
+
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                writeVarInt(out, 0);
+                return;
+            }
+            Integer index = indexes.get(value);
+            if (index == null) {
+                strings.add(value);
+                index = strings.size();
+                indexes.put(value, index);
+            }
+            writeVarInt(out, index);
+        }
+    }
+
+    /*The date part of an ISO date time, or null if the text does not start with one that formats back the same.*/
+    private static LocalDate parseDatePart(String text) {
+        if (text == null || text.length() < 10) {
+            return null;
+        }
+        try {
+            LocalDate date = LocalDate.parse(text.substring(0, 10));
+            return date.toString().equals(text.substring(0, 10)) ? date : null;
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static final class Reader {
+        private final DataInputStream in;
+        private final CountingInputStream counter;
+        private final long length;
+        private String[] strings;
+
+        Reader(DataInputStream in, CountingInputStream counter, long length) {
+            this.in = in;
+            this.counter = counter;
+            this.length = length;
+        }
+
+        CompactConfig readConfig() throws IOException {
+            /*Each string takes at least its two length bytes.*/
+            strings = new String[readCount(2) + 1];
+            for (int i = 1; i < strings.length; i++) {
+                strings[i] = in.readUTF();
+            }
+            List<TimeRange> timeRanges = readTimeRanges();
+            List<ExcludedDate> excludedDates = new ArrayList<>();
+            for (int i = readCount(1); i > 0; i--) {
+                excludedDates.add(readExcludedDate());
+            }
+            List<BlackoutWindow> blackoutWindows = new ArrayList<>();
+            for (int i = readCount(1); i > 0; i--) {
+                blackoutWindows.add(new BlackoutWindow(readString(), readDateTime(), readDateTime()));
+            }
+            List<ScheduleProfile> scheduleProfiles = new ArrayList<>();
+            for (int i = readCount(1); i > 0; i--) {
+                scheduleProfiles.add(new ScheduleProfile(readString(), readTimeRanges()));
+            }
+            List<NodeSchedule> nodeSchedules = new ArrayList<>();
+            for (int i = readCount(1); i > 0; i--) {
+                nodeSchedules.add(new NodeSchedule(readString(), readString()));
+            }
+            return new CompactConfig(timeRanges, excludedDates, blackoutWindows, scheduleProfiles, nodeSchedules);
+        }
+
+        private List<TimeRange> readTimeRanges() throws IOException {
+            List<TimeRange> timeRanges = new ArrayList<>();
+            for (int i = readCount(1); i > 0; i--) {
+                timeRanges.add(new TimeRange(readString(), unZigZag(readVarInt(in)), unZigZag(readVarInt(in)),
+                    in.readByte()));
+            }
+            return timeRanges;
+        }
+
+        private ExcludedDate readExcludedDate() throws IOException {
+            String id = readString();
+            String name = readString();
+            DateType type = DateType.values()[in.readUnsignedByte()];
+            int utcOffset = unZigZag(readVarInt(in));
+            String timezone = readString();
+            ExcludedDate.Date startDate = readDate();
+            ExcludedDate.Date endDate = readDate();
+            int flags = in.readUnsignedByte();
+            int repeatCount = unZigZag(readVarInt(in));
+            int repeatPeriodOrdinal = in.readUnsignedByte();
+            RepeatPeriod repeatPeriod = repeatPeriodOrdinal == NO_REPEAT_PERIOD
+                ? null
+                : RepeatPeriod.values()[repeatPeriodOrdinal];
+            int repeatInterval = unZigZag(readVarInt(in));
+            return new ExcludedDate(id, name, type, utcOffset, timezone, startDate, endDate,
+                (flags & NO_END) != 0, (flags & REPEAT) != 0, repeatCount, repeatPeriod, repeatInterval,
+                readString(), readString());
+        }
+
+        private ExcludedDate.Date readDate() throws IOException {
+            int flags = in.readUnsignedByte();
+            if ((flags & PRESENT) == 0) {
+                return null;
+            }
+            String text;
+            if ((flags & RAW) != 0) {
+                text = readString();
+            } else {
+                int epochDay = unZigZag(readVarInt(in));
+                text = LocalDate.ofEpochDay(epochDay) + readString();
+            }
+            return new ExcludedDate.Date(text, (flags & DYNAMIC) != 0,
+                in.readByte(), in.readByte(), in.readByte());
+        }
+
+        private LocalDateTime readDateTime() throws IOException {
+            long epochSecond = unZigZag(readVarLong(in));
+            return LocalDateTime.ofEpochSecond(epochSecond, readVarInt(in), ZoneOffset.UTC);
+        }
+
+        private String readString() throws IOException {
+            return strings[readVarInt(in)];
+        }
+
+        /**
+         * Read the count of a list, rejecting one larger than the rest of the input could hold.
+         *
+         * @param minSize The least number of bytes an entry takes.
+         * @return The count.
+         * @throws IOException If the count is negative or too large.
+         */
+        private int readCount(int minSize) throws IOException {
+            int count = readVarInt(in);
+            long remaining = length - counter.count;
+            if (count < 0 || count > remaining / minSize) {
+                throw new IOException("Corrupt working hours configuration: count " + count
+                    + " exceeds the " + remaining + " bytes left");
+            }
+            return count;
+        }
+    }
+
+    /*Counts the bytes read through it, to know how many are left.*/
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        return (int) readVarLong(in);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed number in working hours configuration");
+    }
+}
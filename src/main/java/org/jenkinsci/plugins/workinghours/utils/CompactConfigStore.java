@@ -0,0 +1,101 @@
+package org.jenkinsci.plugins.workinghours.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the configuration in a {@link CompactConfig} file, taking care not to lose the XML
+ * file it is migrated from.
+ * <p>
+ * The XML file is only moved aside, to a backup next to it, once the compact file has been
+ * written and read back. If the compact file cannot be read later on, the configuration is
+ * read from the XML file or its backup instead, and the store turns read only, so the
+ * unreadable file is left for an administrator rather than overwritten.
+ */
+public final class CompactConfigStore {
+
+    private static final Logger LOGGER = Logger.getLogger(CompactConfigStore.class.getName());
+
+    private final File file;
+    private final File xml;
+    private final File backup;
+
+    /*Set once the compact file could not be read; nothing is written from then on.*/
+    private volatile boolean readOnly;
+
+    /**
+     * Constructs a store.
+     *
+     * @param file The compact file.
+     * @param xml  The XML file the configuration was kept in before.
+     */
+    public CompactConfigStore(File file, File xml) {
+        this.file = file;
+        this.xml = xml;
+        this.backup = new File(xml.getPath() + ".bak");
+    }
+
+    /**
+     * Read the compact file.
+     *
+     * @return {@link CompactConfig} The configuration, or null if there is no compact file or
+     * it cannot be read, in which case it is to be read from {@link #getFallbackFile()}.
+     */
+    public CompactConfig read() {
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            return CompactConfig.read(file);
+        } catch (IOException e) {
+            readOnly = true;
+            LOGGER.log(Level.SEVERE, "Could not read " + file + ", falling back to " + getFallbackFile()
+                + "; changes will not be saved until it is repaired or removed", e);
+            return null;
+        }
+    }
+
+    /**
+     * Get the XML file to read the configuration from when {@link #read()} returns null.
+     *
+     * @return {@link File} The XML file, else its backup, or null if there is neither.
+     */
+    public File getFallbackFile() {
+        if (xml.isFile()) {
+            return xml;
+        }
+        return backup.isFile() ? backup : null;
+    }
+
+    /**
+     * Whether the compact file could not be read, so nothing is written to it.
+     *
+     * @return true if {@link #write} refuses to write.
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Write the compact file, atomically. If the XML file is still there, it is moved to its
+     * backup once the compact file has been read back.
+     *
+     * @param config The configuration.
+     * @throws IOException If the file cannot be written, cannot be read back while the XML file is kept,
+     *                     or the store is {@link #isReadOnly read only}.
+     */
+    public void write(CompactConfig config) throws IOException {
+        if (readOnly) {
+            throw new IOException(file + " could not be read, it is not overwritten until it is repaired or removed");
+        }
+        config.write(file);
+        if (xml.isFile()) {
+            CompactConfig.read(file);
+            Files.move(xml.toPath(), backup.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
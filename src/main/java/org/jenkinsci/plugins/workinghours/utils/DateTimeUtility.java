@@ -70,6 +70,69 @@ public final class DateTimeUtility {
         return null;
     }
 
+    /**
+     * Convert a date to the number of days since 1970-01-01, the same value as
+     * {@link LocalDate#toEpochDay()}, without creating any objects.
+     *
+     * @param year       The year.
+     * @param month      The month, ranging from 1 to 12.
+     * @param dayOfMonth The day of month, ranging from 1 to 31.
+     * @return The epoch day.
+     */
+    public static int toEpochDay(final int year, final int month, final int dayOfMonth) {
+        /*Count years from March, so the leap day is the last day of the year.*/
+        final int y = month <= 2 ? year - 1 : year;
+        final int era = Math.floorDiv(y, 400);
+        final int yearOfEra = y - era * 400;
+        final int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + dayOfMonth - 1;
+        final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Get the year of an epoch day, without creating any objects.
+     *
+     * @param epochDay The epoch day.
+     * @return The year.
+     */
+    public static int yearOf(final int epochDay) {
+        return fromEpochDay(epochDay) >> 9;
+    }
+
+    /**
+     * Get the month of an epoch day, without creating any objects.
+     *
+     * @param epochDay The epoch day.
+     * @return The month, ranging from 1 to 12.
+     */
+    public static int monthOf(final int epochDay) {
+        return (fromEpochDay(epochDay) >> 5) & 0xF;
+    }
+
+    /**
+     * Get the day of month of an epoch day, without creating any objects.
+     *
+     * @param epochDay The epoch day.
+     * @return The day of month, ranging from 1 to 31.
+     */
+    public static int dayOfMonthOf(final int epochDay) {
+        return fromEpochDay(epochDay) & 0x1F;
+    }
+
+    /*The inverse of toEpochDay, packed as year << 9 | month << 5 | dayOfMonth.*/
+    private static int fromEpochDay(final int epochDay) {
+        final int days = epochDay + 719468;
+        final int era = Math.floorDiv(days, 146097);
+        final int dayOfEra = days - era * 146097;
+        final int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        final int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        final int dayOfMonth = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        final int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        final int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year << 9 | month << 5 | dayOfMonth;
+    }
+
     public static LocalTime localTimeFromMinutes(final int minutes) {
         return LocalTime.of(minutes / 60, minutes % 60);
     }
@@ -0,0 +1,129 @@
+package org.jenkinsci.plugins.workinghours.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.BiFunction;
+
+/**
+ * A bounded cache of the holidays of a region in a year, dropping the least recently used
+ * entries once it is full, and everything when the year rolls over.
+ * <p>
+ * Concurrent requests for the same region and year share a single load: the first one
+ * loads the holidays outside of the cache's lock while the others wait for its result.
+ * A failed load is not cached.
+ */
+public final class HolidayCache {
+
+    private final int capacity;
+    private final BiFunction<String, Integer, HolidayTable> loader;
+
+    /*Region and year -> holidays, in access order; guarded by this.*/
+    private final Map<Key, FutureTask<HolidayTable>> entries;
+
+    /*The year the entries were loaded in; guarded by this.*/
+    private int currentYear;
+
+    /**
+     * Constructs a cache.
+     *
+     * @param capacity How many region and year pairs to keep.
+     * @param loader   Loads the holidays of a region in a year.
+     */
+    public HolidayCache(int capacity, BiFunction<String, Integer, HolidayTable> loader) {
+        this.capacity = Math.max(1, capacity);
+        this.loader = loader;
+        this.entries = new LinkedHashMap<Key, FutureTask<HolidayTable>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, FutureTask<HolidayTable>> eldest) {
+                return size() > HolidayCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Get the holidays of a region in a year, loading them if they are not cached.
+     *
+     * @param regionCode The region's code.
+     * @param year       The year.
+     * @return {@link HolidayTable} The holidays, as returned by the loader.
+     */
+    public HolidayTable get(String regionCode, int year) {
+        Key key = new Key(regionCode, year);
+        FutureTask<HolidayTable> task;
+        boolean load = false;
+        int thisYear = TimeSource.currentYear();
+        synchronized (this) {
+            if (thisYear != currentYear) {
+                entries.clear();
+                currentYear = thisYear;
+            }
+            task = entries.get(key);
+            if (task == null) {
+                task = new FutureTask<>(() -> loader.apply(regionCode, year));
+                entries.put(key, task);
+                load = true;
+            }
+        }
+        if (load) {
+            task.run();
+        }
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            synchronized (this) {
+                entries.remove(key, task);
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Drop all cached holidays.
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * Get how many region and year pairs are cached.
+     *
+     * @return The number of entries.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static final class Key {
+        private final String regionCode;
+        private final int year;
+
+        Key(String regionCode, int year) {
+            this.regionCode = regionCode;
+            this.year = year;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return year == other.year && Objects.equals(regionCode, other.regionCode);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(regionCode) + year;
+        }
+    }
+}
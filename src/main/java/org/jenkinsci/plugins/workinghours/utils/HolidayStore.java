@@ -0,0 +1,251 @@
+package org.jenkinsci.plugins.workinghours.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps resolved {@link HolidayTable}s in a file, so they do not have to be computed by jollyday
+ * again after a restart.
+ * <p>
+ * The file starts with a header naming the format version and the version of the holiday data,
+ * such as the jollyday version and the locale of the descriptions. A file whose header differs
+ * is stale and ignored. It is read into memory when opened, without holding it open, and only
+ * an index of the tables is read; each table is decoded the first time it is asked for. Tables of past years are dropped when
+ * the file is written again.
+ * <p>
+ * Layout, big endian: magic, format version, data version, table count, then per table:
+ * region, year, holiday count, and per holiday: key, description, epoch day.
+ * Strings are an unsigned short length followed by UTF-8 bytes.
+ */
+public final class HolidayStore {
+
+    private static final Logger LOGGER = Logger.getLogger(HolidayStore.class.getName());
+
+    private static final int MAGIC = 0x57484843;
+    private static final int FORMAT_VERSION = 1;
+
+    private final File file;
+    private final String dataVersion;
+
+    /*The contents of the file, or null if there was none, it was stale, or it has been written since; guarded by this.*/
+    private ByteBuffer data;
+
+    /*"region/year" -> offset of the table's holiday count in the data; guarded by this.*/
+    private final Map<String, Integer> offsets = new HashMap<>();
+
+    /*"region/year" -> tables decoded from the file or added; guarded by this.*/
+    private final Map<String, HolidayTable> tables = new LinkedHashMap<>();
+
+    /*Whether tables were added since the file was written; guarded by this.*/
+    private boolean dirty;
+
+    private HolidayStore(File file, String dataVersion, ByteBuffer data) {
+        this.file = file;
+        this.dataVersion = dataVersion;
+        this.data = data;
+    }
+
+    /**
+     * Open a store, reading the index of the file if it exists and is current.
+     *
+     * @param file        The file.
+     * @param dataVersion The version of the holiday data the tables have to match.
+     * @return {@link HolidayStore} The store.
+     */
+    public static HolidayStore open(File file, String dataVersion) {
+        ByteBuffer data = null;
+        if (file.isFile()) {
+            /*Not mapped: a mapping would keep the file from being replaced on Windows until it is collected.*/
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+                if (buffer.getInt() == MAGIC
+                    && buffer.getInt() == FORMAT_VERSION
+                    && dataVersion.equals(readString(buffer))) {
+                    data = buffer;
+                } else {
+                    LOGGER.log(Level.INFO, "Ignoring stale holiday data in " + file);
+                }
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Could not read holiday data from " + file, e);
+            }
+        }
+        HolidayStore store = new HolidayStore(file, dataVersion, data);
+        if (data != null) {
+            try {
+                store.readIndex();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Ignoring corrupt holiday data in " + file, e);
+                store.offsets.clear();
+            }
+        }
+        return store;
+    }
+
+    private synchronized void readIndex() {
+        ByteBuffer buffer = data.duplicate();
+        buffer.position(data.position());
+        int tables = buffer.getInt();
+        for (int i = 0; i < tables; i++) {
+            String region = readString(buffer);
+            int year = buffer.getInt();
+            offsets.put(key(region, year), buffer.position());
+            int holidays = buffer.getInt();
+            for (int j = 0; j < holidays; j++) {
+                skipString(buffer);
+                skipString(buffer);
+                buffer.getInt();
+            }
+        }
+    }
+
+    private static String key(String regionCode, int year) {
+        return regionCode + '/' + year;
+    }
+
+    /**
+     * Get a stored table.
+     *
+     * @param regionCode The region's code.
+     * @param year       The year.
+     * @return {@link HolidayTable} The table, or null if it is not stored.
+     */
+    public synchronized HolidayTable get(String regionCode, int year) {
+        String key = key(regionCode, year);
+        HolidayTable table = tables.get(key);
+        if (table != null) {
+            return table;
+        }
+        Integer offset = offsets.remove(key);
+        if (offset == null) {
+            return null;
+        }
+        try {
+            table = readTable(regionCode, year, offset);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            LOGGER.log(Level.WARNING, "Ignoring corrupt holiday data for " + key, e);
+            return null;
+        }
+        tables.put(key, table);
+        return table;
+    }
+
+    /*Callers hold the lock.*/
+    private HolidayTable readTable(String regionCode, int year, int offset) {
+        ByteBuffer buffer = data.duplicate();
+        buffer.position(offset);
+        int size = buffer.getInt();
+        String[] keys = new String[size];
+        String[] descriptions = new String[size];
+        int[] epochDays = new int[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = readString(buffer);
+            descriptions[i] = readString(buffer);
+            epochDays[i] = buffer.getInt();
+        }
+        return new HolidayTable(regionCode, year, keys, descriptions, epochDays);
+    }
+
+    /**
+     * Add a table, to be written with the next {@link #save}.
+     *
+     * @param table The table.
+     */
+    public synchronized void put(HolidayTable table) {
+        tables.put(key(table.getRegionCode(), table.getYear()), table);
+        dirty = true;
+    }
+
+    /**
+     * Whether tables were added since the file was last written.
+     *
+     * @return true if {@link #save} would change the file.
+     */
+    public synchronized boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Write all tables from a year on to the file, if any were added.
+     * The file is replaced atomically where the file system allows it.
+     *
+     * @param firstYear The first year to keep.
+     * @throws IOException If the file cannot be written.
+     */
+    public synchronized void save(int firstYear) throws IOException {
+        if (!dirty) {
+            return;
+        }
+        /*Decode what is left in the data, which is dropped once the file has been replaced.*/
+        for (Map.Entry<String, Integer> entry : offsets.entrySet()) {
+            String key = entry.getKey();
+            int separator = key.lastIndexOf('/');
+            tables.put(key, readTable(key.substring(0, separator),
+                Integer.parseInt(key.substring(separator + 1)), entry.getValue()));
+        }
+        offsets.clear();
+        data = null;
+        tables.values().removeIf(table -> table.getYear() < firstYear);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            writeString(out, dataVersion);
+            out.writeInt(tables.size());
+            for (HolidayTable table : tables.values()) {
+                writeString(out, table.getRegionCode());
+                out.writeInt(table.getYear());
+                out.writeInt(table.size());
+                for (int i = 0; i < table.size(); i++) {
+                    writeString(out, table.getKey(i));
+                    writeString(out, table.getDescription(i));
+                    out.writeInt(table.getEpochDay(i));
+                }
+            }
+        }
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        File temp = File.createTempFile(file.getName(), ".tmp", parent);
+        try {
+            Files.write(temp.toPath(), bytes.toByteArray());
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+        dirty = false;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void skipString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        buffer.position(buffer.position() + length);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        out.writeShort(Math.min(bytes.length, 0xFFFF));
+        out.write(bytes, 0, Math.min(bytes.length, 0xFFFF));
+    }
+}
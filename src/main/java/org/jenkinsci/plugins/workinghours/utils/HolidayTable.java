@@ -0,0 +1,122 @@
+package org.jenkinsci.plugins.workinghours.utils;
+
+import de.jollyday.Holiday;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The resolved holidays of a region in a year, sorted by date.
+ * Only what the plugin uses is kept: the key, the description and the epoch day of each holiday.
+ * Instances are immutable.
+ */
+public final class HolidayTable {
+
+    /**
+     * Returned where a holiday does not occur.
+     */
+    public static final int NONE = Integer.MIN_VALUE;
+
+    private final String regionCode;
+    private final int year;
+    private final String[] keys;
+    private final String[] descriptions;
+    private final int[] epochDays;
+
+    /**
+     * Constructs a table from its columns, which have to be sorted by epoch day.
+     *
+     * @param regionCode   The region's code.
+     * @param year         The year.
+     * @param keys         The holiday keys.
+     * @param descriptions The holiday descriptions.
+     * @param epochDays    The days the holidays fall on.
+     */
+    public HolidayTable(String regionCode, int year, String[] keys, String[] descriptions, int[] epochDays) {
+        this.regionCode = regionCode;
+        this.year = year;
+        this.keys = keys;
+        this.descriptions = descriptions;
+        this.epochDays = epochDays;
+    }
+
+    /**
+     * Resolve holidays from jollyday into a table.
+     *
+     * @param regionCode The region's code.
+     * @param year       The year.
+     * @param holidays   The holidays of the region in that year.
+     * @return {@link HolidayTable} The table.
+     */
+    public static HolidayTable of(String regionCode, int year, Collection<Holiday> holidays) {
+        List<Holiday> sorted = new ArrayList<>(holidays);
+        sorted.sort((day1, day2) -> {
+            if (day1.getDate().isBefore(day2.getDate())) {
+                return -1;
+            } else if (day1.getDate().isEqual(day2.getDate())) {
+                return 0;
+            } else {
+                return 1;
+            }
+        });
+        int size = sorted.size();
+        String[] keys = new String[size];
+        String[] descriptions = new String[size];
+        int[] epochDays = new int[size];
+        for (int i = 0; i < size; i++) {
+            Holiday holiday = sorted.get(i);
+            keys[i] = holiday.getPropertiesKey();
+            descriptions[i] = holiday.getDescription();
+            epochDays[i] = DateTimeUtility.toEpochDay(
+                holiday.getDate().getYear(),
+                holiday.getDate().getMonthOfYear(),
+                holiday.getDate().getDayOfMonth());
+        }
+        return new HolidayTable(regionCode, year, keys, descriptions, epochDays);
+    }
+
+    public String getRegionCode() {
+        return regionCode;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    /**
+     * Get how many holidays there are.
+     *
+     * @return The number of holidays.
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    public String getKey(int index) {
+        return keys[index];
+    }
+
+    public String getDescription(int index) {
+        return descriptions[index];
+    }
+
+    public int getEpochDay(int index) {
+        return epochDays[index];
+    }
+
+    /**
+     * Get the day a holiday falls on.
+     *
+     * @param key The key of the holiday.
+     * @return The epoch day of its first occurrence, or {@link #NONE} if it does not occur.
+     */
+    public int epochDayOf(String key) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(key)) {
+                return epochDays[i];
+            }
+        }
+        return NONE;
+    }
+}
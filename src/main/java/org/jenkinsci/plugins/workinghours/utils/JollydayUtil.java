@@ -1,68 +1,124 @@
 package org.jenkinsci.plugins.workinghours.utils;
 
 import de.jollyday.Holiday;
+import de.jollyday.HolidayCalendar;
 import de.jollyday.HolidayManager;
+import org.jenkinsci.plugins.workinghours.schedule.ExcludedDayCalendar;
 
-import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 /**
  * Helper methods when using jollyday.
  */
 public class JollydayUtil {
 
+    /*How many region and year pairs of holidays are kept, by default every region (jollyday's and China)
+    for every compiled year. Set with -Dorg.jenkinsci.plugins.workinghours.utils.JollydayUtil.cacheCapacity.*/
+    private static final int CACHE_CAPACITY = Integer.getInteger(JollydayUtil.class.getName() + ".cacheCapacity",
+        (HolidayCalendar.values().length + 1) * ExcludedDayCalendar.YEARS);
+
+    private static final HolidayCache CACHE = new HolidayCache(CACHE_CAPACITY, JollydayUtil::loadHolidays);
+
+    /*Where resolved holidays are kept across restarts, if anywhere.*/
+    private static volatile HolidayStore store;
+
     /**
      * Get two years holiday, so we could show the next occurrence if this year's holiday is past.
      *
      * @param regionCode Code of the target region whose holidays should be returned.
-     * @return Set with two years holidays.
+     * @return List with two years holidays.
      */
-
     public static List<org.jenkinsci.plugins.workinghours.model.Holiday> getTwoYearsHoliday(String regionCode) {
-        List resultThisYear = new ArrayList<>(HolidayManager.getInstance(regionCode).getHolidays(Calendar.getInstance().get(Calendar.YEAR)));
-        resultThisYear.sort((Comparator<Holiday>) (day1, day2) -> {
-            if (day1.getDate().isBefore(day2.getDate())) {
-                return -1;
-            } else if (day1.getDate().isEqual(day2.getDate())) {
-                return 0;
-            } else {
-                return 1;
-            }
-        });
-
-        List resultNextYear = new ArrayList<>(HolidayManager.getInstance(regionCode).getHolidays(Calendar.getInstance().get(Calendar.YEAR) + 1));
-        resultNextYear.sort((Comparator<Holiday>) (day1, day2) -> {
-            if (day1.getDate().isBefore(day2.getDate())) {
-                return -1;
-            } else if (day1.getDate().isEqual(day2.getDate())) {
-                return 0;
-            } else {
-                return 1;
-            }
-        });
-
-        return org.jenkinsci.plugins.workinghours.model.Holiday.mergeTwoYearsHoliday(resultThisYear, resultNextYear);
+        final int thisYear = TimeSource.currentYear();
+        return org.jenkinsci.plugins.workinghours.model.Holiday.mergeTwoYearsHoliday(
+            getHolidays(regionCode, thisYear), getHolidays(regionCode, thisYear + 1));
     }
 
     /**
-     * Get a certain holiday this year.
+     * Get the day a certain holiday falls on this year.
      *
      * @param regionCode The region's code of the holiday.
      * @param holidayKey Key of the target holiday.
-     * @return {@link Holiday} The target holiday.
+     * @return The epoch day of the holiday, or {@link HolidayTable#NONE}.
      */
-    public static Holiday getHolidayThisYear(String regionCode, String holidayKey) {
+    public static int getHolidayThisYear(String regionCode, String holidayKey) {
+        return getHolidays(regionCode, TimeSource.currentYear()).epochDayOf(holidayKey);
+    }
+
+    /**
+     * Get all holidays of a region in a certain year, from the cache or the store if possible.
+     *
+     * @param regionCode The region's code of the holidays.
+     * @param year       The year of the holidays.
+     * @return {@link HolidayTable} The region's holidays in that year.
+     */
+    public static HolidayTable getHolidays(String regionCode, int year) {
+        return CACHE.get(regionCode, year);
+    }
+
+    /**
+     * Set where resolved holidays are kept across restarts.
+     * Holidays found in the store are not computed by jollyday, and the ones that are get added to it.
+     *
+     * @param value The store, or null for none.
+     */
+    public static void setStore(HolidayStore value) {
+        store = value;
+        CACHE.invalidateAll();
+    }
+
+    /**
+     * Get where resolved holidays are kept across restarts.
+     *
+     * @return {@link HolidayStore} The store, or null if there is none.
+     */
+    public static HolidayStore getStore() {
+        return store;
+    }
+
+    /**
+     * Get the version of the holiday data computed by jollyday, which a store has to match.
+     *
+     * @return The jollyday version and the locale of the holiday descriptions.
+     */
+    public static String getDataVersion() {
+        String version = HolidayManager.class.getPackage() == null
+            ? null
+            : HolidayManager.class.getPackage().getImplementationVersion();
+        return "jollyday-" + (version == null ? "unknown" : version) + "/" + Locale.getDefault().toLanguageTag();
+    }
+
+    /**
+     * Get the cache of the holidays by region and year.
+     *
+     * @return {@link HolidayCache} The cache.
+     */
+    public static HolidayCache getCache() {
+        return CACHE;
+    }
+
+    private static HolidayTable loadHolidays(String regionCode, int year) {
+        HolidayStore current = store;
+        HolidayTable table = current == null ? null : current.get(regionCode, year);
+        if (table == null) {
+            table = HolidayTable.of(regionCode, year, loadHolidaySet(regionCode, year));
+            if (current != null) {
+                current.put(table);
+            }
+        }
+        return table;
+    }
+
+    private static Set<Holiday> loadHolidaySet(String regionCode, int year) {
         Thread t = Thread.currentThread();
         ClassLoader orig = t.getContextClassLoader();
         t.setContextClassLoader(HolidayManager.class.getClassLoader());
         try {
-            return HolidayManager.getInstance(regionCode).getHolidays(Calendar.getInstance().get(Calendar.YEAR)).stream().filter(holiday -> holiday.getPropertiesKey().equals(holidayKey)).findFirst().get();
+            return HolidayManager.getInstance(regionCode).getHolidays(year);
         } finally {
             t.setContextClassLoader(orig);
         }
-
     }
 }
-
@@ -0,0 +1,131 @@
+package org.jenkinsci.plugins.workinghours.utils;
+
+/**
+ * Resolves dates like "the third Wednesday of November" or "the last Friday of the month"
+ * with integer arithmetic only.
+ * <p>
+ * The epoch day of the first of every month is precomputed for a range of years, which gives
+ * both the weekday the month starts on and its length. The range can be changed with the
+ * {@code firstYear} and {@code lastYear} system properties prefixed with this class name;
+ * months outside of it are computed on the fly.
+ * <p>
+ * Weekdays go from 1 (Monday) to 7 (Sunday), with 0 also accepted for Sunday.
+ * Week 5 means the last occurrence of the weekday in the month,
+ * which is the fifth one when the month has five.
+ */
+public final class NthWeekdayResolver {
+
+    /**
+     * Returned where there is no such day.
+     */
+    public static final int NONE = Integer.MIN_VALUE;
+
+    /**
+     * The week of month that stands for the last occurrence.
+     */
+    public static final int LAST = 5;
+
+    private static final int FIRST_YEAR = Integer.getInteger(NthWeekdayResolver.class.getName() + ".firstYear", 1900);
+    private static final int LAST_YEAR = Math.max(FIRST_YEAR,
+        Integer.getInteger(NthWeekdayResolver.class.getName() + ".lastYear", 2199));
+
+    /*Epoch day of the first of each month from January of FIRST_YEAR, plus the month after the last one.*/
+    private static final int[] MONTH_STARTS = buildMonthStarts();
+
+    private NthWeekdayResolver() {
+    }
+
+    private static int[] buildMonthStarts() {
+        int months = (LAST_YEAR - FIRST_YEAR + 1) * 12;
+        int[] starts = new int[months + 1];
+        for (int i = 0; i <= months; i++) {
+            starts[i] = DateTimeUtility.toEpochDay(FIRST_YEAR + i / 12, i % 12 + 1, 1);
+        }
+        return starts;
+    }
+
+    private static int firstOfMonth(int year, int month) {
+        if (year >= FIRST_YEAR && year <= LAST_YEAR) {
+            return MONTH_STARTS[(year - FIRST_YEAR) * 12 + month - 1];
+        }
+        return DateTimeUtility.toEpochDay(year, month, 1);
+    }
+
+    private static int firstOfNextMonth(int year, int month) {
+        return month == 12 ? firstOfMonth(year + 1, 1) : firstOfMonth(year, month + 1);
+    }
+
+    /*Day of week from 1 (Monday) to 7 (Sunday); the epoch day 0 was a Thursday.*/
+    private static int isoDayOfWeek(int epochDay) {
+        return Math.floorMod(epochDay + 3, 7) + 1;
+    }
+
+    /**
+     * Get the nth occurrence of a weekday in a month.
+     *
+     * @param year    The year.
+     * @param month   The month, from 1 to 12.
+     * @param week    Which occurrence, from 1 to 4, or {@link #LAST}.
+     * @param weekday The weekday, from 1 (Monday) to 7 (Sunday).
+     * @return The epoch day, or {@link #NONE} if the arguments are out of range.
+     */
+    public static int nthWeekday(int year, int month, int week, int weekday) {
+        if (week == LAST) {
+            return lastWeekday(year, month, weekday);
+        }
+        if (week < 1 || week > LAST || month < 1 || month > 12) {
+            return NONE;
+        }
+        int first = firstOfMonth(year, month);
+        return first + Math.floorMod(weekday - isoDayOfWeek(first), 7) + (week - 1) * 7;
+    }
+
+    /**
+     * Get the last occurrence of a weekday in a month.
+     *
+     * @param year    The year.
+     * @param month   The month, from 1 to 12.
+     * @param weekday The weekday, from 1 (Monday) to 7 (Sunday).
+     * @return The epoch day, or {@link #NONE} if the month is out of range.
+     */
+    public static int lastWeekday(int year, int month, int weekday) {
+        if (month < 1 || month > 12) {
+            return NONE;
+        }
+        int last = firstOfNextMonth(year, month) - 1;
+        return last - Math.floorMod(isoDayOfWeek(last) - weekday, 7);
+    }
+
+    /**
+     * Get the first occurrence on or after a day of the nth weekday of any month.
+     *
+     * @param week     Which occurrence, from 1 to 4, or {@link #LAST}.
+     * @param weekday  The weekday, from 1 (Monday) to 7 (Sunday).
+     * @param epochDay The day to start from.
+     * @return The epoch day of the occurrence.
+     */
+    public static int nextByMonth(int week, int weekday, int epochDay) {
+        int year = DateTimeUtility.yearOf(epochDay);
+        int month = DateTimeUtility.monthOf(epochDay);
+        int day = nthWeekday(year, month, week, weekday);
+        if (day >= epochDay) {
+            return day;
+        }
+        return month == 12 ? nthWeekday(year + 1, 1, week, weekday) : nthWeekday(year, month + 1, week, weekday);
+    }
+
+    /**
+     * Get the first occurrence on or after a day of the nth weekday of a month of the year.
+     *
+     * @param month    The month, from 1 to 12.
+     * @param week     Which occurrence, from 1 to 4, or {@link #LAST}.
+     * @param weekday  The weekday, from 1 (Monday) to 7 (Sunday).
+     * @param epochDay The day to start from.
+     * @return The epoch day of the occurrence.
+     */
+    public static int nextByYear(int month, int week, int weekday, int epochDay) {
+        int year = DateTimeUtility.yearOf(epochDay);
+        int day = nthWeekday(year, month, week, weekday);
+        return day >= epochDay ? day : nthWeekday(year + 1, month, week, weekday);
+    }
+}
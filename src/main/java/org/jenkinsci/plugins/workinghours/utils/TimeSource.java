@@ -0,0 +1,159 @@
+package org.jenkinsci.plugins.workinghours.utils;
+
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * The single source of the current time for the plugin.
+ * Everything that needs "now" asks this class instead of the system clock,
+ * so tests and simulations can swap in a fixed or virtual {@link Clock}.
+ * <p>
+ * For the dispatcher's hot path, {@link #epochMinute()} returns the local wall-clock time
+ * as minutes since 1970-01-01T00:00, without creating any objects.
+ */
+public final class TimeSource {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static volatile Clock clock = Clock.systemDefaultZone();
+
+    private static volatile ZoneOffsetSpan offsetSpan;
+
+    /**
+     * Private constructor to prevent creating instances of this class.
+     */
+    private TimeSource() {
+    }
+
+    /**
+     * Get the clock in use.
+     *
+     * @return {@link Clock} The clock.
+     */
+    public static Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * Replace the clock, for tests and simulations.
+     * It is public only for the tests, which live in their own package.
+     *
+     * @param value The clock to use, or null to go back to the system clock in the default timezone.
+     */
+    @Restricted(NoExternalUse.class)
+    public static void setClock(Clock value) {
+        clock = value == null ? Clock.systemDefaultZone() : value;
+        offsetSpan = null;
+    }
+
+    /**
+     * Get the current time.
+     *
+     * @return Epoch milliseconds.
+     */
+    public static long currentTimeMillis() {
+        return clock.millis();
+    }
+
+    /**
+     * Get today's date in the clock's timezone.
+     *
+     * @return {@link LocalDate} Today.
+     */
+    public static LocalDate today() {
+        return LocalDate.now(clock);
+    }
+
+    /**
+     * Get the current year in the clock's timezone.
+     *
+     * @return The current year.
+     */
+    public static int currentYear() {
+        return today().getYear();
+    }
+
+    /**
+     * Get the local wall-clock time as minutes since 1970-01-01T00:00 in the clock's timezone.
+     *
+     * @return The local epoch minute.
+     */
+    public static long epochMinute() {
+        Clock current = clock;
+        long millis = current.millis();
+        ZoneOffsetSpan span = offsetSpan;
+        if (span == null || span.clock != current || millis < span.from || millis >= span.until) {
+            span = ZoneOffsetSpan.of(current, millis);
+            offsetSpan = span;
+        }
+        return Math.floorDiv(millis + span.offsetMillis, 60_000L);
+    }
+
+    /**
+     * Get the epoch day of a local epoch minute.
+     *
+     * @param epochMinute The local epoch minute.
+     * @return The epoch day.
+     */
+    public static int epochDay(long epochMinute) {
+        return (int) Math.floorDiv(epochMinute, MINUTES_PER_DAY);
+    }
+
+    /**
+     * Get the minute of the day of a local epoch minute.
+     *
+     * @param epochMinute The local epoch minute.
+     * @return Minutes from 00:00.
+     */
+    public static int minuteOfDay(long epochMinute) {
+        return (int) Math.floorMod(epochMinute, MINUTES_PER_DAY);
+    }
+
+    /**
+     * Get the day of week of an epoch day.
+     *
+     * @param epochDay The epoch day.
+     * @return Day of week, ranging from 0 to 6, indicating from Sunday to Saturday,
+     * the same as {@link org.jenkinsci.plugins.workinghours.model.TimeRange#getDayOfWeek()}.
+     */
+    public static int dayOfWeek(int epochDay) {
+        /*1970-01-01 was a Thursday.*/
+        return Math.floorMod(epochDay + 4, 7);
+    }
+
+    /**
+     * A span of time during which the clock's timezone has a fixed offset from UTC.
+     */
+    private static final class ZoneOffsetSpan {
+        private final Clock clock;
+        private final long from;
+        private final long until;
+        private final long offsetMillis;
+
+        private ZoneOffsetSpan(Clock clock, long from, long until, long offsetMillis) {
+            this.clock = clock;
+            this.from = from;
+            this.until = until;
+            this.offsetMillis = offsetMillis;
+        }
+
+        static ZoneOffsetSpan of(Clock clock, long millis) {
+            ZoneId zone = clock.getZone();
+            ZoneRules rules = zone.getRules();
+            Instant instant = Instant.ofEpochMilli(millis);
+            long offsetMillis = rules.getOffset(instant).getTotalSeconds() * 1000L;
+            ZoneOffsetTransition previous = rules.previousTransition(instant.plusMillis(1));
+            ZoneOffsetTransition next = rules.nextTransition(instant);
+            long from = previous == null ? Long.MIN_VALUE : previous.getInstant().toEpochMilli();
+            long until = next == null ? Long.MAX_VALUE : next.getInstant().toEpochMilli();
+            return new ZoneOffsetSpan(clock, from, until, offsetMillis);
+        }
+    }
+}
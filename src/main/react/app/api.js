@@ -18,7 +18,6 @@ function getApiBaseUrl() {
   return window.parent.location.href
 }
 
-
 const AXIOS_DEFAULT_CONFIG = {
   baseURL: process.env.BASE_URL || getApiBaseUrl(),
   timeout: 20000,
@@ -40,19 +39,43 @@ if (crumbHeaderName) {
 export default axiosInstance;
 
 export const getExcludedDates = () => {
-  return axiosInstance.post("/list-excluded-dates");
+  return axiosInstance.get("/excluded-dates");
+};
+
+export const addExcludedDate = (params) => {
+  return axiosInstance.post("/add-excluded-date", params);
 };
 
-export const setExcludedDates = (params) => {
-  return axiosInstance.post("/set-excluded-dates", params);
+export const updateExcludedDate = (id, params) => {
+  return axiosInstance.post(`/update-excluded-date/${id}`, params);
+};
+
+export const deleteExcludedDate = (id) => {
+  return axiosInstance.post(`/delete-excluded-date/${id}`);
 };
 
 export const getTimeRanges = () => {
-  return axiosInstance.post("/list-time-ranges");
+  return axiosInstance.get("/time-ranges");
+};
+
+export const addTimeRange = (params) => {
+  return axiosInstance.post("/add-time-range", params);
+};
+
+export const updateTimeRange = (id, params) => {
+  return axiosInstance.post(`/update-time-range/${id}`, params);
+};
+
+export const deleteTimeRange = (id) => {
+  return axiosInstance.post(`/delete-time-range/${id}`);
+};
+
+export const getBlackoutWindows = () => {
+  return axiosInstance.get("/list-blackout-windows");
 };
 
-export const setTimeRanges = (params) => {
-  return axiosInstance.post("/set-time-ranges", params);
+export const setBlackoutWindows = (params) => {
+  return axiosInstance.post("/set-blackout-windows", params);
 };
 
 export function fetchRegionalHolidays(regionCode) {
@@ -0,0 +1,161 @@
+import React from "react";
+
+import "../style/components.css";
+import {debounce} from "lodash";
+import {getBlackoutWindows, setBlackoutWindows} from "../../../api";
+import {LOADING_STATE, LoadingState} from "../../common/savingState";
+import only from "only";
+
+
+/**
+ * Whether a blackout window is complete and ends after it starts, so it can be submitted.
+ * Both times are local date times like '2019-07-22T10:00', which compare as strings.
+ */
+function isValid(item) {
+  return !!item.name && !!item.start && !!item.end && item.start < item.end;
+}
+
+/**
+ * Container for blackout windows. In charge of data fetch/submit, loading state control.
+ * The server only takes the whole list, so every change submits all valid windows.
+ */
+export default class BlackoutWindowContainer extends React.Component {
+  constructor(props) {
+    super(props);
+    this.state = {
+      blackoutWindows: [],
+      loadingState: LOADING_STATE.WAITING,
+    };
+  }
+
+  /*A debounced function used to clear loading state.
+  * */
+  debouncedClearLoading = debounce(() => {
+    this.setState({
+      loadingState: LOADING_STATE.WAITING
+    })
+  }, 1000)
+
+  /**
+   * Upload the valid blackout windows to server.
+   * @param list The blackout windows in the list.
+   */
+  uploadBlackoutWindows(list) {
+    this.setState({
+      loadingState: LOADING_STATE.LOADING
+    })
+    setBlackoutWindows({data: list.filter(isValid).map(item => only(item, "name start end"))}).then(res => {
+      this.setState({
+        loadingState: LOADING_STATE.SUCCESS
+      })
+      this.debouncedClearLoading();
+    }).catch(err => {
+      this.setState({
+        loadingState: LOADING_STATE.FAIL
+      })
+    });
+  }
+
+  /**
+   * Handler for editing a field of a blackout window, which is only submitted on blur.
+   * @param index The index of the blackout window.
+   * @param field The field to change.
+   */
+  handleChange = (index, field) => (e) => {
+    let list = this.state.blackoutWindows;
+    list[index] = {...list[index], [field]: e.target.value};
+    this.setState({
+      blackoutWindows: list
+    });
+  };
+
+  handleBlur = () => {
+    this.uploadBlackoutWindows(this.state.blackoutWindows);
+  };
+
+  /**
+   * Handler for deleting a blackout window
+   * @param index
+   */
+  handleDelete = (index) => {
+    if (!window.confirm("Are you sure to delete this blackout window?")) {
+      return;
+    }
+    let list = this.state.blackoutWindows;
+    let [item] = list.splice(index, 1);
+    this.setState({
+      blackoutWindows: list
+    });
+    if (isValid(item)) {
+      this.uploadBlackoutWindows(list);
+    }
+  };
+
+  addBlackoutWindow = () => {
+    let list = this.state.blackoutWindows;
+    list.push({name: "", start: "", end: ""});
+    this.setState({
+      blackoutWindows: list
+    });
+  };
+
+  /**
+   * Fetching data once the app is mounted.
+   */
+  componentDidMount() {
+    this.setState({
+      loadingState: LOADING_STATE.LOADING
+    })
+    getBlackoutWindows().then(res => {
+      this.setState({
+        blackoutWindows: res.data.data,
+        loadingState: LOADING_STATE.SUCCESS
+      })
+      this.debouncedClearLoading();
+    }).catch(err => {
+      this.setState({
+        loadingState: LOADING_STATE.FAIL
+      })
+    });
+  }
+
+  render() {
+    return (
+      <div>
+        <div className={"config-header"}>
+          <div className={'config-title'}>Blackout Window</div>
+          <div className={'config-loading-status'}>
+            <LoadingState loadingState={this.state.loadingState}/>
+          </div>
+          <div className={'config-count'}>Total:{this.state.blackoutWindows.length}</div>
+        </div>
+        <div className={"config-item"}>
+          {this.state.blackoutWindows.length <= 0 ?
+            <div>Blackout window is not configured.</div> : this.state.blackoutWindows.map((item, index) => (
+              <div key={index}>
+                <div className={"form-row"}>
+                  <input value={item.name} placeholder="Name" className={"input input-text"}
+                         onChange={this.handleChange(index, "name")}
+                         onBlur={this.handleBlur}/>
+                  <input type="datetime-local" value={item.start} className={"input input-text"}
+                         style={{marginLeft: 10}}
+                         onChange={this.handleChange(index, "start")}
+                         onBlur={this.handleBlur}/>
+                  <input type="datetime-local" value={item.end} className={"input input-text"}
+                         style={{marginLeft: 10}}
+                         onChange={this.handleChange(index, "end")}
+                         onBlur={this.handleBlur}/>
+                  <button type="button" className={"btn btn-delete"} onClick={() => this.handleDelete(index)}>X</button>
+                </div>
+                {!isValid(item) &&
+                <div style={{color: "red", fontWeight: "100"}}>Not saved until it has a name and ends after it starts</div>}
+              </div>
+            ))}
+          <div className={"form-row"} style={{marginBottom: 0}}>
+            <button onClick={this.addBlackoutWindow} className='btn btn-gray'>Add</button>
+          </div>
+        </div>
+      </div>
+    );
+  }
+}
@@ -1,7 +1,7 @@
 import React from "react";
 
 import ExcludedDate from './excludedDate'
-import {getExcludedDates, setExcludedDates} from "../../../api";
+import {addExcludedDate, deleteExcludedDate, getExcludedDates, updateExcludedDate} from "../../../api";
 import only from "only";
 import {LOADING_STATE, LoadingState} from "../../common/savingState";
 import {debounce} from "lodash";
@@ -36,7 +36,10 @@ export default class ExcludeDateContainer extends React.Component {
       openIndex: show ? index : -1
     })
 
-    list[index] = state;
+    let item = list[index];
+
+    /*Keep the id and any pending request of the item, the child does not know about them.*/
+    list[index] = {...state, id: item.id, pending: item.pending};
 
     /*Set both data for child and data for submit.*/
     this.setState({
@@ -45,7 +48,7 @@ export default class ExcludeDateContainer extends React.Component {
 
     /*Save items if it's click on closed and save.*/
     if(!show){
-      this.uploadDates(list)
+      this.uploadDate(list[index])
     }
   };
 
@@ -60,21 +63,40 @@ export default class ExcludeDateContainer extends React.Component {
       })
     }
     let list = this.state.excludedDates;
-    list.splice(index, index + 1);
+    let [item] = list.splice(index, 1);
     this.setState({
       excludedDates: list
     });
-
-    this.uploadDates(list);
+    if (!item.id && !item.pending) {
+      return;
+    }
+    this.setState({
+      loadingState: LOADING_STATE.LOADING
+    });
+    (item.pending || Promise.resolve()).then(() => item.id && deleteExcludedDate(item.id)).then(res => {
+      this.setState({
+        loadingState: LOADING_STATE.SUCCESS
+      })
+      this.debouncedClearLoading()
+    }).catch(err => {
+      this.setState({
+        loadingState: LOADING_STATE.FAIL
+      })
+    });
   };
 
-  uploadDates(param) {
+  /**
+   * Upload a single excluded date to server, adding it if it has no id yet, and apply the returned change.
+   * Requests of the same item wait for each other, so a new item is only added once.
+   * @param item The excluded date in the list.
+   */
+  uploadDate(item) {
     this.setState({
       loadingState: LOADING_STATE.LOADING
     })
-    setExcludedDates({
-      data: param
-        .map(item => only(item, [
+    item.pending = (item.pending || Promise.resolve()).then(() => {
+      let data = {
+        data: only(item, [
           "holidayId",
           "holidayRegion",
           "name",
@@ -87,8 +109,11 @@ export default class ExcludeDateContainer extends React.Component {
           "repeat",
           "repeatCount",
           "repeatInterval",
-          "repeatPeriod"].join(" ")))
+          "repeatPeriod"].join(" "))
+      };
+      return item.id ? updateExcludedDate(item.id, data) : addExcludedDate(data);
     }).then(res => {
+      item.id = res.data.data.data.id;
       this.setState({
         loadingState: LOADING_STATE.SUCCESS
       })
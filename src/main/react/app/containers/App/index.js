@@ -14,6 +14,7 @@ import "./style/index.css";
 
 import ExcludedDateContainer from "./excludedDate/index";
 import TimeRangeContainer from "./timeRange/index";
+import BlackoutWindowContainer from "./blackoutWindow/index";
 
 import {PluginContext} from "../context/context";
 
@@ -36,6 +37,7 @@ export default class App extends React.Component {
         </h3>
         <TimeRangeContainer/>
         <ExcludedDateContainer/>
+        <BlackoutWindowContainer/>
       </div>
     );
   }
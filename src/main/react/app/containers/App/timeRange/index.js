@@ -3,7 +3,7 @@ import {WEEKDAYS} from "../constants";
 
 import "../style/components.css";
 import {debounce} from "lodash";
-import {getTimeRanges, setTimeRanges} from "../../../api";
+import {addTimeRange, deleteTimeRange, getTimeRanges, updateTimeRange} from "../../../api";
 import {LOADING_STATE, LoadingState} from "../../common/savingState";
 import TimeRange from "./timeRange";
 import only from "only";
@@ -36,29 +36,34 @@ export default class TimeRangeContainer extends React.Component {
    * */
   handleTimeRangeChange = (index, state) => {
     let list = this.state.timeRanges;
+    let item = list[index];
 
-    list[index] = state;
+    /*Keep the id and any pending request of the item, the child does not know about them.*/
+    list[index] = {...state, id: item.id, pending: item.pending};
 
     /*Set both data for child and data for submit.*/
     this.setState({
       timeRanges: list
     });
 
-    this.uploadTimes(list);
+    this.uploadTime(list[index]);
   };
 
 
   /**
-   * Upload time ranges to server.
-   * @param param
+   * Upload a single time range to server, adding it if it has no id yet, and apply the returned change.
+   * Requests of the same item wait for each other, so a new item is only added once.
+   * @param item The time range in the list.
    */
-  uploadTimes(param) {
+  uploadTime(item) {
     this.setState({
       loadingState: LOADING_STATE.LOADING
     })
-    setTimeRanges({
-      data: param.map(item => only(item, "dayOfWeek endTime startTime"))
+    item.pending = (item.pending || Promise.resolve()).then(() => {
+      let data = {data: only(item, "dayOfWeek endTime startTime")};
+      return item.id ? updateTimeRange(item.id, data) : addTimeRange(data);
     }).then(res => {
+      item.id = res.data.data.data.id;
       this.setState({
         loadingState: LOADING_STATE.SUCCESS
       })
@@ -77,11 +82,26 @@ export default class TimeRangeContainer extends React.Component {
    */
   handleTimeRangeDelete = (index) => {
     let list = this.state.timeRanges;
-    list.splice(index, 1);
+    let [item] = list.splice(index, 1);
     this.setState({
       timeRanges: list
     });
-    this.uploadTimes(list);
+    if (!item.id && !item.pending) {
+      return;
+    }
+    this.setState({
+      loadingState: LOADING_STATE.LOADING
+    });
+    (item.pending || Promise.resolve()).then(() => item.id && deleteTimeRange(item.id)).then(res => {
+      this.setState({
+        loadingState: LOADING_STATE.SUCCESS
+      })
+      this.debouncedClearLoading();
+    }).catch(err => {
+      this.setState({
+        loadingState: LOADING_STATE.FAIL
+      })
+    });
   };
 
 
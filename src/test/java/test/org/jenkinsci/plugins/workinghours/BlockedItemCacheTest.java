@@ -0,0 +1,73 @@
+package test.org.jenkinsci.plugins.workinghours;
+
+import hudson.model.Queue;
+import org.jenkinsci.plugins.workinghours.BlockedItemCache;
+import org.jenkinsci.plugins.workinghours.actions.EnforceBuildScheduleAction;
+import org.jenkinsci.plugins.workinghours.model.ExcludedDate;
+import org.jenkinsci.plugins.workinghours.model.TimeRange;
+import org.jenkinsci.plugins.workinghours.schedule.ScheduleSnapshot;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({Queue.Item.class, Queue.LeftItem.class})
+@PowerMockIgnore({"javax.crypto.*"})
+public class BlockedItemCacheTest {
+
+    private static final long NOW = 1000;
+    private static final long NOT_BEFORE = 1060;
+
+    private Queue.Item item;
+    private ScheduleSnapshot snapshot;
+
+    @Before
+    public void setUp() {
+        item = PowerMockito.mock(Queue.Item.class);
+        when(item.getId()).thenReturn(42L);
+        snapshot = new ScheduleSnapshot(Collections.<TimeRange>emptyList(), Collections.<ExcludedDate>emptyList());
+    }
+
+    @Test
+    public void testBlockedUntilScheduleMayChange() {
+        BlockedItemCache.block(item, snapshot, NOW, NOT_BEFORE, new EnforceBuildScheduleAction());
+
+        assertTrue(BlockedItemCache.isBlocked(item, snapshot, NOW));
+        assertTrue(BlockedItemCache.isBlocked(item, snapshot, NOT_BEFORE - 1));
+        assertFalse(BlockedItemCache.isBlocked(item, snapshot, NOT_BEFORE));
+        assertFalse(BlockedItemCache.isBlocked(item, snapshot, NOW - 1));
+        assertFalse(BlockedItemCache.isBlocked(item, snapshot.withTimeRanges(
+            Collections.singletonList(new TimeRange(0, 1439, 1))), NOW));
+    }
+
+    @Test
+    public void testReleaseEndsBlock() {
+        EnforceBuildScheduleAction action = new EnforceBuildScheduleAction();
+        BlockedItemCache.block(item, snapshot, NOW, NOT_BEFORE, action);
+
+        action.releaseJob();
+
+        assertFalse(BlockedItemCache.isBlocked(item, snapshot, NOW));
+    }
+
+    @Test
+    public void testLeavingQueueEvicts() {
+        BlockedItemCache.block(item, snapshot, NOW, NOT_BEFORE, null);
+        Queue.LeftItem left = PowerMockito.mock(Queue.LeftItem.class);
+        when(left.getId()).thenReturn(42L);
+
+        new BlockedItemCache().onLeft(left);
+
+        assertFalse(BlockedItemCache.isBlocked(item, snapshot, NOW));
+    }
+}
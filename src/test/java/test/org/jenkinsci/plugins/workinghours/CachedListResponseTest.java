@@ -0,0 +1,141 @@
+package test.org.jenkinsci.plugins.workinghours;
+
+import org.jenkinsci.plugins.workinghours.CachedListResponse;
+import org.junit.Test;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachedListResponseTest {
+
+    /**
+     * What a response was sent with.
+     */
+    private static final class Sent {
+        private final Map<String, String> headers = new HashMap<>();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private StaplerResponse response;
+    }
+
+    private static Sent send(HttpResponse httpResponse, String ifNoneMatch, String acceptEncoding) throws Exception {
+        StaplerRequest request = mock(StaplerRequest.class);
+        when(request.getHeader("If-None-Match")).thenReturn(ifNoneMatch);
+        when(request.getHeader("Accept-Encoding")).thenReturn(acceptEncoding);
+        Sent sent = new Sent();
+        sent.response = mock(StaplerResponse.class);
+        doAnswer(invocation -> sent.headers.put(invocation.getArgument(0), invocation.getArgument(1)))
+            .when(sent.response).setHeader(anyString(), anyString());
+        when(sent.response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                sent.body.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        });
+        httpResponse.generateResponse(request, sent.response, null);
+        return sent;
+    }
+
+    private static String gunzip(byte[] bytes) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            byte[] buffer = new byte[1024];
+            for (int n = in.read(buffer); n != -1; n = in.read(buffer)) {
+                out.write(buffer, 0, n);
+            }
+        }
+        return out.toString(StandardCharsets.UTF_8.name());
+    }
+
+    private static List<String> names(int count) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            names.add("time range number " + i);
+        }
+        return names;
+    }
+
+    @Test
+    public void testETagFollowsTheListInstance() throws Exception {
+        CachedListResponse cached = new CachedListResponse();
+        List<String> list = new ArrayList<>(Arrays.asList("a", "b"));
+
+        String etag = send(cached.respond(list), null, null).headers.get("ETag");
+        assertEquals(etag, send(cached.respond(list), null, null).headers.get("ETag"));
+
+        List<String> replaced = new ArrayList<>(Arrays.asList("a", "c"));
+        assertNotEquals(etag, send(cached.respond(replaced), null, null).headers.get("ETag"));
+    }
+
+    @Test
+    public void testMatchingIfNoneMatchIsNotModified() throws Exception {
+        CachedListResponse cached = new CachedListResponse();
+        List<String> list = Collections.singletonList("a");
+        String etag = send(cached.respond(list), null, null).headers.get("ETag");
+
+        Sent sent = send(cached.respond(list), etag, null);
+
+        verify(sent.response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        assertEquals(0, sent.body.size());
+
+        Sent stale = send(cached.respond(list), "W/\"stale\"", null);
+        verify(stale.response, never()).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        assertTrue(stale.body.size() > 0);
+    }
+
+    @Test
+    public void testGzipsLargeBodiesWhenAccepted() throws Exception {
+        CachedListResponse cached = new CachedListResponse();
+        List<String> large = names(100);
+
+        Sent plain = send(cached.respond(large), null, null);
+        assertNull(plain.headers.get("Content-Encoding"));
+        assertTrue(plain.body.size() >= 1024);
+
+        Sent gzipped = send(cached.respond(large), null, "gzip, deflate");
+        assertEquals("gzip", gzipped.headers.get("Content-Encoding"));
+        assertTrue(gzipped.body.size() < plain.body.size());
+        assertEquals(plain.body.toString(StandardCharsets.UTF_8.name()), gunzip(gzipped.body.toByteArray()));
+    }
+
+    @Test
+    public void testSmallBodiesAreNotGzipped() throws Exception {
+        Sent sent = send(new CachedListResponse().respond(names(2)), null, "gzip");
+
+        assertNull(sent.headers.get("Content-Encoding"));
+        assertTrue(sent.body.toString(StandardCharsets.UTF_8.name()).startsWith("{"));
+    }
+}
@@ -0,0 +1,78 @@
+package test.org.jenkinsci.plugins.workinghours;
+
+import org.jenkinsci.plugins.workinghours.WriteBehind;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WriteBehindTest {
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    private final AtomicInteger writes = new AtomicInteger();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testBurstIsWrittenOnce() throws Exception {
+        CountDownLatch written = new CountDownLatch(1);
+        WriteBehind writeBehind = new WriteBehind(() -> {
+            writes.incrementAndGet();
+            written.countDown();
+        }, 100, () -> executor);
+
+        for (int i = 0; i < 50; i++) {
+            writeBehind.request();
+        }
+        assertTrue(writeBehind.isPending());
+        assertEquals(0, writes.get());
+
+        assertTrue(written.await(10, TimeUnit.SECONDS));
+        // Give a second, wrongly scheduled write the time to run.
+        Thread.sleep(300);
+        assertEquals(1, writes.get());
+        assertFalse(writeBehind.isPending());
+    }
+
+    @Test
+    public void testFlushWritesPendingChange() {
+        WriteBehind writeBehind = new WriteBehind(writes::incrementAndGet, TimeUnit.HOURS.toMillis(1), () -> executor);
+
+        writeBehind.flush();
+        assertEquals(0, writes.get());
+
+        writeBehind.request();
+        writeBehind.flush();
+        assertEquals(1, writes.get());
+        assertFalse(writeBehind.isPending());
+
+        // The scheduled write was cancelled, so there is nothing left to write.
+        writeBehind.flush();
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    public void testChangeAfterWriteIsWrittenAgain() {
+        WriteBehind writeBehind = new WriteBehind(writes::incrementAndGet, TimeUnit.HOURS.toMillis(1), () -> executor);
+
+        writeBehind.request();
+        writeBehind.flush();
+        writeBehind.request();
+        assertTrue(writeBehind.isPending());
+        writeBehind.flush();
+
+        assertEquals(2, writes.get());
+    }
+}
@@ -25,11 +25,15 @@ package test.org.jenkinsci.plugins.workinghours.actions;
 
 import hudson.model.Queue.WaitingItem;
 import hudson.model.Run;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.Calendar;
 import java.util.Collections;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 import org.jenkinsci.plugins.workflow.support.steps.ExecutorStepExecution;
 import org.jenkinsci.plugins.workinghours.actions.EnforceBuildScheduleAction;
+import org.jenkinsci.plugins.workinghours.utils.TimeSource;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -62,6 +66,7 @@ public class EnforceBuildScheduleActionTest {
     
     @After
     public void tearDown() {
+        TimeSource.setClock(null);
     }
 
     /**
@@ -113,4 +118,19 @@ public class EnforceBuildScheduleActionTest {
         assertNotEquals(0, instance.getReleasedTimeStamp());
     }
 
+    /**
+     * Verifies markReleased takes the timestamp from the time source, and only once.
+     */
+    @Test
+    public void testMarkReleasedUsesTimeSource() {
+        Instant released = Instant.parse("2019-07-22T09:30:00Z");
+        TimeSource.setClock(Clock.fixed(released, ZoneOffset.UTC));
+        EnforceBuildScheduleAction instance = new EnforceBuildScheduleAction();
+
+        instance.markReleased();
+        TimeSource.setClock(Clock.fixed(released.plusSeconds(60), ZoneOffset.UTC));
+        instance.markReleased();
+
+        assertEquals(released.toEpochMilli(), instance.getReleasedTimeStamp());
+    }
 }
@@ -131,6 +131,20 @@ public class DateTimeUtilityTest {
         assertFalse(DateTimeUtility.isValidDate("11 12 1970"));
     }
 
+    /**
+     * Verifies epoch days convert to and from dates the same way LocalDate does.
+     */
+    @Test
+    public void testEpochDayRoundTrip() {
+        for (LocalDate date = LocalDate.of(1899, 12, 1); date.getYear() < 2101; date = date.plusDays(1)) {
+            int epochDay = (int) date.toEpochDay();
+            assertEquals(epochDay, DateTimeUtility.toEpochDay(date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+            assertEquals(date.getYear(), DateTimeUtility.yearOf(epochDay));
+            assertEquals(date.getMonthValue(), DateTimeUtility.monthOf(epochDay));
+            assertEquals(date.getDayOfMonth(), DateTimeUtility.dayOfMonthOf(epochDay));
+        }
+    }
+
     /**
      * Verifies DateTimeUtility can not be instantiated, since it's a pure
      * utility class.
@@ -0,0 +1,73 @@
+package test.org.jenkinsci.plugins.workinghours.model;
+
+import org.jenkinsci.plugins.workinghours.model.DateType;
+import org.jenkinsci.plugins.workinghours.model.ExcludedDate;
+import org.jenkinsci.plugins.workinghours.model.RepeatPeriod;
+import org.junit.Test;
+import test.org.jenkinsci.plugins.workinghours.utility.ExcludedDateUtility;
+
+import java.time.LocalDate;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ExcludedDateTest {
+
+    private static int day(int year, int month, int dayOfMonth) {
+        return (int) LocalDate.of(year, month, dayOfMonth).toEpochDay();
+    }
+
+    @Test
+    public void testExcludesStaticDate() {
+        ExcludedDate excludedDate = ExcludedDateUtility.staticDate(LocalDate.of(2019, 7, 22));
+
+        assertTrue(excludedDate.excludes(day(2019, 7, 22)));
+        assertFalse(excludedDate.excludes(day(2019, 7, 23)));
+        assertFalse(excludedDate.excludes(day(2020, 7, 22)));
+    }
+
+    @Test
+    public void testExcludesDynamicDate() {
+        // Every Friday.
+        ExcludedDate everyFriday = ExcludedDateUtility.dynamicDate(1, 1, 5, RepeatPeriod.REPEAT_BY_WEEK);
+        assertTrue(everyFriday.excludes(day(2019, 7, 26)));
+        assertFalse(everyFriday.excludes(day(2019, 7, 25)));
+
+        // Third Wednesday of every month.
+        ExcludedDate thirdWednesday = ExcludedDateUtility.dynamicDate(1, 3, 3, RepeatPeriod.REPEAT_BY_MONTH);
+        assertTrue(thirdWednesday.excludes(day(2019, 7, 17)));
+        assertTrue(thirdWednesday.excludes(day(2019, 8, 21)));
+        assertFalse(thirdWednesday.excludes(day(2019, 8, 14)));
+
+        // Fourth Thursday of November, and third Sunday of July with Sunday given as 0.
+        ExcludedDate thanksgiving = ExcludedDateUtility.dynamicDate(11, 4, 4, RepeatPeriod.REPEAT_BY_YEAR);
+        assertTrue(thanksgiving.excludes(day(2019, 11, 28)));
+        assertFalse(thanksgiving.excludes(day(2019, 10, 24)));
+        ExcludedDate thirdSundayOfJuly = ExcludedDateUtility.dynamicDate(7, 3, 0, RepeatPeriod.REPEAT_BY_YEAR);
+        assertTrue(thirdSundayOfJuly.excludes(day(2020, 7, 19)));
+    }
+
+    @Test
+    public void testExcludesHoliday() {
+        ExcludedDate christmas = ExcludedDateUtility.holiday("DE", "CHRISTMAS");
+
+        assertTrue(christmas.excludes(day(2019, 12, 25)));
+        assertTrue(christmas.excludes(day(2020, 12, 25)));
+        assertFalse(christmas.excludes(day(2020, 12, 24)));
+        assertFalse(christmas.excludes(day(2020, 1, 25)));
+        assertTrue(christmas.shouldExclude(new GregorianCalendar(2020, Calendar.DECEMBER, 25)));
+    }
+
+    @Test
+    public void testUnreadableDateOnlyDisablesThatDate() {
+        ExcludedDate.Date legacy = new ExcludedDate.Date("22/07/2019", false, 1, 1, 1);
+        ExcludedDate excludedDate = new ExcludedDate("id", "legacy", DateType.TYPE_CUSTOM, 0, null,
+            legacy, null, true, false, 0, RepeatPeriod.REPEAT_BY_YEAR, 1, null, null);
+
+        assertNull(excludedDate.getRecurrence());
+        assertFalse(excludedDate.excludes(day(2019, 7, 22)));
+    }
+}
@@ -0,0 +1,123 @@
+package test.org.jenkinsci.plugins.workinghours.model;
+
+import org.jenkinsci.plugins.workinghours.model.ExcludedDate;
+import org.jenkinsci.plugins.workinghours.model.Recurrence;
+import org.jenkinsci.plugins.workinghours.model.RepeatPeriod;
+import org.junit.Test;
+import test.org.jenkinsci.plugins.workinghours.utility.ExcludedDateUtility;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RecurrenceTest {
+
+    private static int day(int year, int month, int dayOfMonth) {
+        return (int) LocalDate.of(year, month, dayOfMonth).toEpochDay();
+    }
+
+    /*All days a recurrence contains in a range, found by checking each day.*/
+    private static List<Integer> scan(Recurrence recurrence, int from, int to) {
+        List<Integer> days = new ArrayList<>();
+        for (int day = from; day <= to; day++) {
+            if (recurrence.contains(day)) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    private static List<Integer> iterate(Recurrence recurrence, int from, int to) {
+        List<Integer> days = new ArrayList<>();
+        PrimitiveIterator.OfInt occurrences = recurrence.occurrencesFrom(from);
+        while (occurrences.hasNext()) {
+            int day = occurrences.nextInt();
+            if (day > to) {
+                break;
+            }
+            days.add(day);
+        }
+        return days;
+    }
+
+    @Test
+    public void testEverySecondFridayForSixOccurrences() {
+        ExcludedDate excludedDate = ExcludedDateUtility.recurring(
+            ExcludedDateUtility.startDate(LocalDate.of(2019, 7, 1), true, 1, 1, 5), RepeatPeriod.REPEAT_BY_WEEK, 2, 6, null);
+        Recurrence recurrence = excludedDate.getRecurrence();
+
+        List<Integer> expected = Arrays.asList(day(2019, 7, 5), day(2019, 7, 19), day(2019, 8, 2),
+            day(2019, 8, 16), day(2019, 8, 30), day(2019, 9, 13));
+        assertEquals(expected, scan(recurrence, day(2019, 1, 1), day(2020, 12, 31)));
+        assertEquals(expected, iterate(recurrence, day(2019, 1, 1), day(2020, 12, 31)));
+        assertEquals(day(2019, 8, 16), recurrence.nextOccurrence(day(2019, 8, 3)));
+        assertEquals(Recurrence.NONE, recurrence.nextOccurrence(day(2019, 9, 14)));
+    }
+
+    @Test
+    public void testMonthlyStaticDateSkipsShortMonths() {
+        Recurrence recurrence = ExcludedDateUtility.recurring(
+            ExcludedDateUtility.startDate(LocalDate.of(2019, 1, 31), false, 1, 1, 1), RepeatPeriod.REPEAT_BY_MONTH, 1, -1, null)
+            .getRecurrence();
+
+        assertTrue(recurrence.contains(day(2019, 3, 31)));
+        assertFalse(recurrence.contains(day(2019, 2, 28)));
+        assertFalse(recurrence.contains(day(2019, 4, 30)));
+        assertEquals(Arrays.asList(day(2019, 5, 31), day(2019, 7, 31), day(2019, 8, 31)),
+            iterate(recurrence, day(2019, 4, 1), day(2019, 9, 30)));
+    }
+
+    @Test
+    public void testYearlyUntilEndDate() {
+        Recurrence recurrence = ExcludedDateUtility.recurring(
+            ExcludedDateUtility.startDate(LocalDate.of(2019, 7, 22), false, 1, 1, 1), RepeatPeriod.REPEAT_BY_YEAR, 1, -1,
+            LocalDate.of(2021, 12, 31)).getRecurrence();
+
+        assertFalse(recurrence.contains(day(2018, 7, 22)));
+        assertTrue(recurrence.contains(day(2019, 7, 22)));
+        assertTrue(recurrence.contains(day(2021, 7, 22)));
+        assertFalse(recurrence.contains(day(2022, 7, 22)));
+        assertEquals(Recurrence.NONE, recurrence.nextOccurrence(day(2021, 7, 23)));
+    }
+
+    @Test
+    public void testEveryThirdMonthOnThirdWednesday() {
+        Recurrence recurrence = ExcludedDateUtility.recurring(
+            ExcludedDateUtility.startDate(LocalDate.of(2019, 7, 1), true, 1, 3, 3), RepeatPeriod.REPEAT_BY_MONTH, 3, -1, null)
+            .getRecurrence();
+
+        assertEquals(Arrays.asList(day(2019, 7, 17), day(2019, 10, 16), day(2020, 1, 15)),
+            scan(recurrence, day(2019, 1, 1), day(2020, 2, 1)));
+        // Skips straight to the period of the day it starts from.
+        assertEquals(day(2119, 10, 18), recurrence.nextOccurrence(day(2119, 8, 1)));
+    }
+
+    @Test
+    public void testSingleOccurrence() {
+        ExcludedDate thanksgiving = ExcludedDateUtility.recurring(
+            ExcludedDateUtility.startDate(LocalDate.of(2019, 7, 1), true, 11, 4, 4), RepeatPeriod.REPEAT_BY_YEAR, 1, 1, null);
+        ExcludedDate once = ExcludedDateUtility.staticDate(LocalDate.of(2019, 7, 22));
+
+        assertEquals(Arrays.asList(day(2019, 11, 28)),
+            scan(thanksgiving.getRecurrence(), day(2019, 1, 1), day(2022, 12, 31)));
+        assertEquals(Arrays.asList(day(2019, 7, 22)),
+            iterate(once.getRecurrence(), day(2019, 1, 1), day(2022, 12, 31)));
+    }
+
+    @Test
+    public void testLastWeekdayOfMonth() {
+        // The last Friday of every month.
+        Recurrence lastFriday = ExcludedDateUtility.dynamicDate(1, 5, 5, RepeatPeriod.REPEAT_BY_MONTH).getRecurrence();
+
+        assertEquals(Arrays.asList(day(2019, 5, 31), day(2019, 6, 28), day(2019, 7, 26)),
+            iterate(lastFriday, day(2019, 5, 1), day(2019, 7, 31)));
+        assertEquals(iterate(lastFriday, day(2019, 1, 1), day(2020, 12, 31)),
+            scan(lastFriday, day(2019, 1, 1), day(2020, 12, 31)));
+    }
+}
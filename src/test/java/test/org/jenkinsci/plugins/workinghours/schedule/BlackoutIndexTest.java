@@ -0,0 +1,71 @@
+package test.org.jenkinsci.plugins.workinghours.schedule;
+
+import net.sf.json.JSONObject;
+import org.jenkinsci.plugins.workinghours.model.BlackoutWindow;
+import org.jenkinsci.plugins.workinghours.schedule.BlackoutIndex;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BlackoutIndexTest {
+
+    private static BlackoutWindow window(int startHour, int endHour) {
+        return new BlackoutWindow("window",
+            LocalDateTime.of(2019, 7, 6, startHour, 0), LocalDateTime.of(2019, 7, 6, endHour, 0));
+    }
+
+    private static long minute(int hour) {
+        return LocalDate.of(2019, 7, 6).toEpochDay() * 24 * 60 + hour * 60;
+    }
+
+    @Test
+    public void testMergesOverlappingWindows() {
+        BlackoutIndex index = BlackoutIndex.build(Arrays.asList(window(8, 9), window(2, 4), window(3, 6), window(6, 7)));
+
+        assertFalse(index.contains(minute(2) - 1));
+        assertTrue(index.contains(minute(2)));
+        assertTrue(index.contains(minute(6)));
+        assertFalse(index.contains(minute(7)));
+        assertTrue(index.contains(minute(8)));
+        assertFalse(index.contains(minute(9)));
+
+        assertEquals(minute(7), index.nextFree(minute(3)));
+        assertEquals(minute(7), index.nextFree(minute(7)));
+        assertEquals(minute(2), index.nextChange(minute(1)));
+        assertEquals(minute(7), index.nextChange(minute(2)));
+        assertEquals(minute(8), index.nextChange(minute(7)));
+        assertEquals(Long.MAX_VALUE, index.nextChange(minute(9)));
+    }
+
+    @Test
+    public void testEmpty() {
+        BlackoutIndex index = BlackoutIndex.build(Collections.<BlackoutWindow>emptyList());
+
+        assertTrue(index.isEmpty());
+        assertFalse(index.contains(minute(2)));
+        assertEquals(minute(2), index.nextFree(minute(2)));
+        assertEquals(Long.MAX_VALUE, index.nextChange(minute(2)));
+    }
+
+    @Test
+    public void testValidation() {
+        JSONObject json = new JSONObject();
+        json.put("name", "maintenance");
+        json.put("start", "2019-07-06T02:00");
+        assertFalse(BlackoutWindow.validateBlackoutWindow(json).isValid());
+        json.put("end", "2019-07-06T01:00");
+        assertFalse(BlackoutWindow.validateBlackoutWindow(json).isValid());
+        json.put("end", "tomorrow");
+        assertFalse(BlackoutWindow.validateBlackoutWindow(json).isValid());
+        json.put("end", "2019-07-06T06:00");
+        assertTrue(BlackoutWindow.validateBlackoutWindow(json).isValid());
+        assertEquals(minute(6), new BlackoutWindow(json).getEndMinute());
+    }
+}
@@ -0,0 +1,100 @@
+package test.org.jenkinsci.plugins.workinghours.schedule;
+
+import org.jenkinsci.plugins.workinghours.model.ExcludedDate;
+import org.jenkinsci.plugins.workinghours.model.RepeatPeriod;
+import org.jenkinsci.plugins.workinghours.schedule.ExcludedDayCalendar;
+import org.junit.Test;
+import test.org.jenkinsci.plugins.workinghours.utility.ExcludedDateUtility;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ExcludedDayCalendarTest {
+
+    private static int day(int year, int month, int dayOfMonth) {
+        return (int) LocalDate.of(year, month, dayOfMonth).toEpochDay();
+    }
+
+    @Test
+    public void testCompilesExcludedDates() {
+        ExcludedDate christmas = ExcludedDateUtility.holiday("DE", "CHRISTMAS");
+        ExcludedDate staticDate = ExcludedDateUtility.staticDate(LocalDate.of(2020, 7, 22));
+        ExcludedDate everyFriday = ExcludedDateUtility.dynamicDate(1, 1, 5, RepeatPeriod.REPEAT_BY_WEEK);
+        ExcludedDayCalendar calendar = ExcludedDayCalendar.build(Arrays.asList(christmas, staticDate, everyFriday), 2019);
+
+        assertEquals(2019, calendar.getFirstYear());
+        assertTrue(calendar.contains(day(2019, 12, 25)));
+        assertTrue(calendar.contains(day(2021, 12, 25)));
+        assertTrue(calendar.contains(day(2020, 7, 22)));
+        assertFalse(calendar.contains(day(2021, 7, 22)));
+        assertTrue(calendar.contains(day(2019, 7, 26)));
+        assertTrue(calendar.contains(day(2021, 12, 31)));
+        assertFalse(calendar.contains(day(2019, 7, 25)));
+        assertTrue(calendar.covers(day(2019, 1, 1)));
+        assertTrue(calendar.covers(day(2021, 12, 31)));
+        assertFalse(calendar.covers(day(2018, 12, 31)));
+        assertFalse(calendar.covers(day(2022, 1, 1)));
+        assertFalse(ExcludedDayCalendar.EMPTY.covers(day(2019, 1, 1)));
+    }
+
+    @Test
+    public void testWithChangesKeepsOverlappingDates() {
+        ExcludedDate christmas = ExcludedDateUtility.holiday("DE", "CHRISTMAS");
+        ExcludedDate christmasDay = ExcludedDateUtility.staticDate(LocalDate.of(2019, 12, 25));
+        ExcludedDayCalendar calendar = ExcludedDayCalendar.build(Arrays.asList(christmas, christmasDay), 2019);
+
+        ExcludedDayCalendar withoutStatic = calendar.withChanges(
+            Collections.<ExcludedDate>emptyList(), Collections.singletonList(christmasDay));
+        assertTrue(withoutStatic.contains(day(2019, 12, 25)));
+
+        ExcludedDayCalendar withoutBoth = withoutStatic.withChanges(
+            Collections.<ExcludedDate>emptyList(), Collections.singletonList(christmas));
+        assertFalse(withoutBoth.contains(day(2019, 12, 25)));
+        assertFalse(withoutBoth.contains(day(2020, 12, 25)));
+
+        ExcludedDate added = ExcludedDateUtility.staticDate(LocalDate.of(2020, 3, 3));
+        ExcludedDayCalendar withAdded = withoutBoth.withChanges(
+            Collections.singletonList(added), Collections.<ExcludedDate>emptyList());
+        assertTrue(withAdded.contains(day(2020, 3, 3)));
+
+        // The original calendar is left untouched.
+        assertTrue(calendar.contains(day(2020, 12, 25)));
+        assertFalse(calendar.contains(day(2020, 3, 3)));
+    }
+
+    @Test
+    public void testKeepsUnresolvedHolidaysAside() {
+        ExcludedDate unknown = ExcludedDateUtility.holiday("XX", "NO_SUCH_HOLIDAY");
+        ExcludedDate staticDate = ExcludedDateUtility.staticDate(LocalDate.of(2020, 7, 22));
+        ExcludedDayCalendar calendar = ExcludedDayCalendar.build(Arrays.asList(unknown, staticDate), 2019);
+
+        assertEquals(Collections.singletonList(unknown), calendar.getUnresolved());
+        assertTrue(calendar.contains(day(2020, 7, 22)));
+        assertFalse(calendar.contains(day(2020, 7, 23)));
+
+        ExcludedDayCalendar withoutUnknown = calendar.withChanges(
+            Collections.<ExcludedDate>emptyList(), Collections.singletonList(unknown));
+        assertTrue(withoutUnknown.getUnresolved().isEmpty());
+        assertTrue(withoutUnknown.contains(day(2020, 7, 22)));
+    }
+
+    @Test
+    public void testRemovingWhatWasNotAddedFails() {
+        ExcludedDate added = ExcludedDateUtility.staticDate(LocalDate.of(2020, 7, 22));
+        ExcludedDate other = ExcludedDateUtility.staticDate(LocalDate.of(2020, 7, 23));
+        ExcludedDayCalendar calendar = ExcludedDayCalendar.build(Collections.singletonList(added), 2019);
+
+        try {
+            calendar.withChanges(Collections.<ExcludedDate>emptyList(), Collections.singletonList(other));
+            fail();
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("removed"));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package test.org.jenkinsci.plugins.workinghours.schedule;
+
+import org.jenkinsci.plugins.workinghours.model.ExcludedDate;
+import org.jenkinsci.plugins.workinghours.schedule.HolidayIndex;
+import org.junit.Test;
+import test.org.jenkinsci.plugins.workinghours.utility.ExcludedDateUtility;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HolidayIndexTest {
+
+    @Test
+    public void testIndexesHolidayOccurrences() {
+        ExcludedDate christmas = ExcludedDateUtility.holiday("DE", "CHRISTMAS");
+        HolidayIndex index = HolidayIndex.build(Arrays.asList(christmas, christmas), 2019);
+
+        assertEquals(2019, index.getFirstYear());
+        for (int year = 2019; year <= 2021; year++) {
+            int christmasDay = (int) LocalDate.of(year, 12, 25).toEpochDay();
+            assertTrue(index.covers(christmas, christmasDay));
+            assertTrue(index.contains(christmas, christmasDay));
+            assertFalse(index.contains(christmas, christmasDay - 1));
+        }
+        assertFalse(index.covers(christmas, (int) LocalDate.of(2018, 12, 25).toEpochDay()));
+        assertFalse(index.covers(christmas, (int) LocalDate.of(2022, 12, 25).toEpochDay()));
+    }
+
+    @Test
+    public void testSkipsNonHolidays() {
+        ExcludedDate date = ExcludedDateUtility.staticDate(LocalDate.of(2019, 12, 25));
+        HolidayIndex index = HolidayIndex.build(Arrays.asList(date), 2019);
+
+        assertFalse(index.covers(date, (int) LocalDate.of(2019, 12, 25).toEpochDay()));
+    }
+}
@@ -0,0 +1,170 @@
+package test.org.jenkinsci.plugins.workinghours.schedule;
+
+import org.jenkinsci.plugins.workinghours.model.ExcludedDate;
+import org.jenkinsci.plugins.workinghours.model.NodeSchedule;
+import org.jenkinsci.plugins.workinghours.model.ScheduleProfile;
+import org.jenkinsci.plugins.workinghours.model.TimeRange;
+import org.jenkinsci.plugins.workinghours.schedule.ScheduleSnapshot;
+import org.jenkinsci.plugins.workinghours.utils.TimeSource;
+import org.junit.After;
+import org.junit.Test;
+import test.org.jenkinsci.plugins.workinghours.utility.ExcludedDateUtility;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ScheduleSnapshotTest {
+
+    @After
+    public void tearDown() {
+        TimeSource.setClock(null);
+    }
+
+    @Test
+    public void testExclusionIsEvaluatedPerDay() {
+        ScheduleSnapshot snapshot = new ScheduleSnapshot(Collections.<TimeRange>emptyList(),
+            Collections.singletonList(ExcludedDateUtility.staticDate(LocalDate.of(2019, 7, 22))));
+
+        int day = (int) LocalDate.of(2019, 7, 22).toEpochDay();
+        assertTrue(snapshot.isExcluded(day));
+        assertTrue(snapshot.isExcluded(day));
+        assertFalse(snapshot.isExcluded(day + 1));
+        assertFalse(snapshot.isExcluded(day - 1));
+        assertTrue(snapshot.isExcluded(day));
+    }
+
+    @Test
+    public void testReplacingExcludedDatesDropsVerdict() {
+        ScheduleSnapshot snapshot = new ScheduleSnapshot(Collections.<TimeRange>emptyList(),
+            Collections.<ExcludedDate>emptyList());
+        int day = (int) LocalDate.of(2019, 7, 22).toEpochDay();
+
+        assertFalse(snapshot.isExcluded(day));
+        assertTrue(snapshot.withExcludedDates(Collections.singletonList(
+            ExcludedDateUtility.staticDate(LocalDate.of(2019, 7, 22)))).isExcluded(day));
+    }
+
+    @Test
+    public void testUpdatingExcludedDatesWithinCompiledYears() {
+        TimeSource.setClock(Clock.fixed(LocalDate.of(2019, 7, 1).atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        ExcludedDate kept = ExcludedDateUtility.staticDate(LocalDate.of(2019, 7, 22));
+        ExcludedDate removed = ExcludedDateUtility.staticDate(LocalDate.of(2019, 7, 23));
+        ExcludedDate added = ExcludedDateUtility.staticDate(LocalDate.of(2020, 7, 24));
+        ScheduleSnapshot snapshot = new ScheduleSnapshot(Collections.<TimeRange>emptyList(), Arrays.asList(kept, removed));
+        ScheduleSnapshot updated = snapshot.withExcludedDates(Arrays.asList(kept, added));
+
+        assertEquals(2019, updated.getExcludedDays().getFirstYear());
+        assertTrue(updated.isExcluded((int) LocalDate.of(2019, 7, 22).toEpochDay()));
+        assertFalse(updated.isExcluded((int) LocalDate.of(2019, 7, 23).toEpochDay()));
+        assertTrue(updated.isExcluded((int) LocalDate.of(2020, 7, 24).toEpochDay()));
+        assertTrue(snapshot.isExcluded((int) LocalDate.of(2019, 7, 23).toEpochDay()));
+    }
+
+    @Test
+    public void testApplyingKnownChangesToExcludedDates() {
+        TimeSource.setClock(Clock.fixed(LocalDate.of(2019, 7, 1).atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        ExcludedDate first = ExcludedDateUtility.staticDate(LocalDate.of(2019, 7, 22));
+        ExcludedDate second = ExcludedDateUtility.staticDate(LocalDate.of(2019, 7, 23));
+        ExcludedDate third = ExcludedDateUtility.staticDate(LocalDate.of(2019, 7, 24));
+        ExcludedDate edited = ExcludedDateUtility.staticDate(LocalDate.of(2019, 7, 25));
+        ScheduleSnapshot snapshot = new ScheduleSnapshot(Collections.<TimeRange>emptyList(),
+            Arrays.asList(first, second, third));
+        ScheduleSnapshot updated = snapshot.withExcludedDates(Arrays.asList(first, edited, third),
+            Collections.singletonList(edited), Collections.singletonList(second));
+
+        assertEquals(2019, updated.getExcludedDays().getFirstYear());
+        assertEquals(Arrays.asList(first, edited, third), updated.getExcludedDates());
+        assertFalse(updated.isExcluded((int) LocalDate.of(2019, 7, 23).toEpochDay()));
+        assertTrue(updated.isExcluded((int) LocalDate.of(2019, 7, 25).toEpochDay()));
+        assertTrue(updated.isExcluded((int) LocalDate.of(2019, 7, 24).toEpochDay()));
+    }
+
+    @Test
+    public void testDeferredSnapshotEvaluatesEachDate() {
+        TimeSource.setClock(Clock.fixed(LocalDate.of(2019, 7, 1).atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        ScheduleSnapshot snapshot = ScheduleSnapshot.deferred(Collections.<TimeRange>emptyList(),
+            Collections.singletonList(ExcludedDateUtility.holiday("DE", "CHRISTMAS")), null);
+        int christmas = (int) LocalDate.of(2019, 12, 25).toEpochDay();
+
+        assertFalse(snapshot.isExcludedDaysCompiled());
+        assertTrue(snapshot.isExcluded(christmas));
+        assertFalse(snapshot.isExcluded(christmas + 1));
+
+        ScheduleSnapshot compiled = snapshot.withExcludedDaysRecompiled();
+        assertTrue(compiled.isExcludedDaysCompiled());
+        assertTrue(compiled.getExcludedDays().covers(christmas));
+        assertTrue(compiled.isExcluded(christmas));
+    }
+
+    @Test
+    public void testIdenticalProfilesShareOneSnapshot() {
+        // Monday 10:00 - 16:00 for deploys, twice, and the global Monday 09:00 - 17:00 for nightly
+        ScheduleSnapshot snapshot = new ScheduleSnapshot(
+            Collections.singletonList(new TimeRange(540, 1020, 1)),
+            Collections.singletonList(ExcludedDateUtility.staticDate(LocalDate.of(2019, 7, 22))),
+            null,
+            Arrays.asList(
+                new ScheduleProfile("deploy", Collections.singletonList(new TimeRange(600, 960, 1))),
+                new ScheduleProfile("release", Collections.singletonList(new TimeRange(600, 960, 1))),
+                new ScheduleProfile("nightly", Collections.singletonList(new TimeRange(540, 1020, 1)))));
+
+        ScheduleSnapshot deploy = snapshot.forProfile("deploy");
+        assertSame(deploy, snapshot.forProfile("release"));
+        assertSame(snapshot, snapshot.forProfile("nightly"));
+        assertSame(snapshot, snapshot.forProfile("unknown"));
+        assertSame(snapshot, snapshot.forProfile(null));
+        assertTrue(snapshot.hasProfile("nightly"));
+        assertFalse(snapshot.hasProfile("unknown"));
+        assertFalse(deploy.getWeeklySchedule().isAllowed(1, 540));
+        assertTrue(deploy.getWeeklySchedule().isAllowed(1, 600));
+        assertTrue(deploy.isExcluded((int) LocalDate.of(2019, 7, 22).toEpochDay()));
+        assertSame(deploy.getExcludedDays(), snapshot.getExcludedDays());
+    }
+
+    @Test
+    public void testProfilesFollowGlobalChanges() {
+        ScheduleSnapshot snapshot = new ScheduleSnapshot(Collections.<TimeRange>emptyList(),
+            Collections.<ExcludedDate>emptyList(), null,
+            Collections.singletonList(new ScheduleProfile("deploy", Collections.singletonList(new TimeRange(600, 960, 1)))));
+        int day = (int) LocalDate.of(2019, 7, 22).toEpochDay();
+
+        ScheduleSnapshot updated = snapshot.withExcludedDates(
+            Collections.singletonList(ExcludedDateUtility.staticDate(LocalDate.of(2019, 7, 22))));
+        assertFalse(snapshot.forProfile("deploy").isExcluded(day));
+        assertTrue(updated.forProfile("deploy").isExcluded(day));
+        assertSame(snapshot.forProfile("deploy").getWeeklySchedule(), updated.forProfile("deploy").getWeeklySchedule());
+
+        ScheduleSnapshot withoutProfiles = updated.withScheduleProfiles(null);
+        assertSame(withoutProfiles, withoutProfiles.forProfile("deploy"));
+    }
+
+    @Test
+    public void testNodesFollowTheirLabelSchedule() {
+        ScheduleSnapshot snapshot = new ScheduleSnapshot(
+            Collections.singletonList(new TimeRange(540, 1020, 1)), Collections.<ExcludedDate>emptyList(), null,
+            Collections.singletonList(new ScheduleProfile("off-hours", Collections.singletonList(new TimeRange(0, 480, 1)))))
+            .withNodeSchedules(Arrays.asList(
+                new NodeSchedule("lab", "off-hours"),
+                new NodeSchedule("production", null),
+                new NodeSchedule("lab-01", null)));
+        ScheduleSnapshot offHours = snapshot.forProfile("off-hours");
+
+        assertSame(offHours, snapshot.forNode("lab-02", new HashSet<>(Arrays.asList("linux", "lab"))));
+        assertSame(snapshot, snapshot.forNode("prod-01", Collections.singleton("production")));
+        // The node's own name comes before its labels.
+        assertSame(snapshot, snapshot.forNode("lab-01", Collections.singleton("lab")));
+        assertNull(snapshot.forNode("build-01", Collections.singleton("linux")));
+        assertNull(snapshot.withNodeSchedules(null).forNode("lab-02", Collections.singleton("lab")));
+        assertSame(offHours, snapshot.withNodeSchedules(snapshot.getNodeSchedules()).forNode("lab-02", Collections.singleton("lab")));
+    }
+}
@@ -0,0 +1,112 @@
+package test.org.jenkinsci.plugins.workinghours.schedule;
+
+import org.jenkinsci.plugins.workinghours.model.BlackoutWindow;
+import org.jenkinsci.plugins.workinghours.model.ExcludedDate;
+import org.jenkinsci.plugins.workinghours.model.TimeRange;
+import org.jenkinsci.plugins.workinghours.schedule.ScheduleSnapshot;
+import org.jenkinsci.plugins.workinghours.schedule.ScheduleTimeline;
+import org.jenkinsci.plugins.workinghours.schedule.ScheduleVerdictCache;
+import org.jenkinsci.plugins.workinghours.utils.TimeSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import test.org.jenkinsci.plugins.workinghours.utility.ExcludedDateUtility;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ScheduleTimelineTest {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    /*2019-07-22 is a Monday.*/
+    private static final LocalDate MONDAY_DATE = LocalDate.of(2019, 7, 22);
+    private static final long MONDAY = MONDAY_DATE.toEpochDay() * MINUTES_PER_DAY;
+
+    @Before
+    public void setUp() {
+        TimeSource.setClock(Clock.fixed(MONDAY_DATE.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+    }
+
+    @After
+    public void tearDown() {
+        TimeSource.setClock(null);
+    }
+
+    @Test
+    public void testCoversTheNextDays() {
+        ScheduleTimeline timeline = new ScheduleSnapshot(
+            Collections.<TimeRange>emptyList(), Collections.<ExcludedDate>emptyList()).getTimeline();
+
+        assertTrue(timeline.covers(MONDAY));
+        assertFalse(timeline.covers(MONDAY - 1));
+        assertEquals(MONDAY + (long) ScheduleTimeline.DAYS * MINUTES_PER_DAY, timeline.getUntil());
+        assertFalse(timeline.covers(timeline.getUntil()));
+    }
+
+    @Test
+    public void testVerdictLastsUntilTheScheduleChanges() {
+        // Mondays and Tuesdays 09:00 - 17:00, the Tuesday excluded
+        ScheduleSnapshot snapshot = new ScheduleSnapshot(
+            Arrays.asList(new TimeRange(540, 1020, 1), new TimeRange(540, 1020, 2)),
+            Collections.singletonList(ExcludedDateUtility.staticDate(MONDAY_DATE.plusDays(1))));
+        ScheduleVerdictCache cache = new ScheduleVerdictCache();
+
+        ScheduleVerdictCache.Verdict working = cache.lookup(snapshot, MONDAY + 600);
+        assertTrue(working.isAllowed());
+        assertEquals(MONDAY + 1021, working.getValidUntil());
+
+        // Blocked until Tuesday, which is excluded all day, then until next Monday.
+        ScheduleVerdictCache.Verdict evening = cache.lookup(snapshot, MONDAY + 1021);
+        assertFalse(evening.isAllowed());
+        assertFalse(evening.isExcluded());
+        assertEquals(MONDAY + MINUTES_PER_DAY, evening.getValidUntil());
+
+        ScheduleVerdictCache.Verdict excluded = cache.lookup(snapshot, MONDAY + MINUTES_PER_DAY + 600);
+        assertTrue(excluded.isExcluded());
+        assertEquals(MONDAY + 2 * MINUTES_PER_DAY, excluded.getValidUntil());
+
+        ScheduleVerdictCache.Verdict week = cache.lookup(snapshot, MONDAY + 2 * MINUTES_PER_DAY);
+        assertFalse(week.isAllowed());
+        assertEquals(MONDAY + 7 * MINUTES_PER_DAY + 540, week.getValidUntil());
+    }
+
+    @Test
+    public void testIncludesBlackoutWindows() {
+        // Every day all day, blacked out Monday 10:00 - 12:00
+        ScheduleSnapshot snapshot = new ScheduleSnapshot(
+            Arrays.asList(new TimeRange(0, 1439, 0), new TimeRange(0, 1439, 1), new TimeRange(0, 1439, 2),
+                new TimeRange(0, 1439, 3), new TimeRange(0, 1439, 4), new TimeRange(0, 1439, 5),
+                new TimeRange(0, 1439, 6)),
+            Collections.<ExcludedDate>emptyList(),
+            Collections.singletonList(new BlackoutWindow("maintenance",
+                MONDAY_DATE.atTime(10, 0), LocalDateTime.of(2019, 7, 22, 12, 0))));
+        ScheduleVerdictCache cache = new ScheduleVerdictCache();
+
+        assertEquals(MONDAY + 600, cache.lookup(snapshot, MONDAY).getValidUntil());
+        ScheduleVerdictCache.Verdict during = cache.lookup(snapshot, MONDAY + 660);
+        assertTrue(during.isExcluded());
+        assertEquals(MONDAY + 720, during.getValidUntil());
+        ScheduleVerdictCache.Verdict after = cache.lookup(snapshot, MONDAY + 720);
+        assertTrue(after.isAllowed());
+        assertEquals(snapshot.getTimeline().getUntil(), after.getValidUntil());
+    }
+
+    @Test
+    public void testDeferredSnapshotHasNoTimeline() {
+        ScheduleSnapshot snapshot = ScheduleSnapshot.deferred(Collections.<TimeRange>emptyList(),
+            Collections.singletonList(ExcludedDateUtility.staticDate(MONDAY_DATE)), null);
+
+        assertFalse(snapshot.getTimeline().covers(MONDAY));
+        assertTrue(snapshot.withExcludedDaysRecompiled().getTimeline().covers(MONDAY));
+        assertTrue(new ScheduleVerdictCache().lookup(snapshot, MONDAY).isExcluded());
+    }
+}
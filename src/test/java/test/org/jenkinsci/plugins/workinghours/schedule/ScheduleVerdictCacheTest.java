@@ -0,0 +1,97 @@
+package test.org.jenkinsci.plugins.workinghours.schedule;
+
+import org.jenkinsci.plugins.workinghours.model.BlackoutWindow;
+import org.jenkinsci.plugins.workinghours.model.ExcludedDate;
+import org.jenkinsci.plugins.workinghours.model.TimeRange;
+import org.jenkinsci.plugins.workinghours.schedule.ScheduleSnapshot;
+import org.jenkinsci.plugins.workinghours.schedule.ScheduleVerdictCache;
+import org.junit.Test;
+import test.org.jenkinsci.plugins.workinghours.utility.ExcludedDateUtility;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ScheduleVerdictCacheTest {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    /*2019-07-22 is a Monday.*/
+    private static final long MONDAY = LocalDate.of(2019, 7, 22).toEpochDay() * MINUTES_PER_DAY;
+
+    @Test
+    public void testVerdictLastsUntilNextTransition() {
+        // Monday 09:00 - 17:00
+        ScheduleSnapshot snapshot = new ScheduleSnapshot(
+            Collections.singletonList(new TimeRange(540, 1020, 1)), Collections.<ExcludedDate>emptyList());
+        ScheduleVerdictCache cache = new ScheduleVerdictCache();
+
+        ScheduleVerdictCache.Verdict early = cache.lookup(snapshot, MONDAY + 100);
+        assertFalse(early.isAllowed());
+        assertEquals(MONDAY + 540, early.getValidUntil());
+        assertSame(early, cache.lookup(snapshot, MONDAY + 539));
+
+        ScheduleVerdictCache.Verdict working = cache.lookup(snapshot, MONDAY + 540);
+        assertTrue(working.isAllowed());
+        assertEquals(MONDAY + 1021, working.getValidUntil());
+
+        ScheduleVerdictCache.Verdict evening = cache.lookup(snapshot, MONDAY + 1021);
+        assertFalse(evening.isAllowed());
+        assertEquals(MONDAY + MINUTES_PER_DAY, evening.getValidUntil());
+    }
+
+    @Test
+    public void testExcludedDayBlocksUntilMidnight() {
+        ScheduleSnapshot snapshot = new ScheduleSnapshot(
+            Collections.singletonList(new TimeRange(0, 1439, 1)),
+            Collections.singletonList(ExcludedDateUtility.staticDate(LocalDate.of(2019, 7, 22))));
+        ScheduleVerdictCache cache = new ScheduleVerdictCache();
+
+        ScheduleVerdictCache.Verdict verdict = cache.lookup(snapshot, MONDAY + 600);
+        assertTrue(verdict.isExcluded());
+        assertFalse(verdict.isAllowed());
+        assertEquals(MONDAY + MINUTES_PER_DAY, verdict.getValidUntil());
+        assertFalse(cache.lookup(snapshot.withExcludedDates(Collections.<ExcludedDate>emptyList()), MONDAY + 600).isExcluded());
+    }
+
+    @Test
+    public void testBlackoutWindowBoundsVerdict() {
+        // Monday all day, blacked out 10:00 - 12:00
+        ScheduleSnapshot snapshot = new ScheduleSnapshot(
+            Collections.singletonList(new TimeRange(0, 1439, 1)), Collections.<ExcludedDate>emptyList(),
+            Collections.singletonList(new BlackoutWindow("maintenance",
+                LocalDateTime.of(2019, 7, 22, 10, 0), LocalDateTime.of(2019, 7, 22, 12, 0))));
+        ScheduleVerdictCache cache = new ScheduleVerdictCache();
+
+        ScheduleVerdictCache.Verdict before = cache.lookup(snapshot, MONDAY + 540);
+        assertTrue(before.isAllowed());
+        assertEquals(MONDAY + 600, before.getValidUntil());
+
+        ScheduleVerdictCache.Verdict during = cache.lookup(snapshot, MONDAY + 600);
+        assertTrue(during.isExcluded());
+        assertFalse(during.isAllowed());
+        assertEquals(MONDAY + 720, during.getValidUntil());
+
+        assertTrue(cache.lookup(snapshot, MONDAY + 720).isAllowed());
+    }
+
+    @Test
+    public void testTouchingBlackoutWindowsGiveOneVerdict() {
+        // Monday all day, blacked out 10:00 - 12:00 and 12:00 - 13:00
+        ScheduleSnapshot snapshot = new ScheduleSnapshot(
+            Collections.singletonList(new TimeRange(0, 1439, 1)), Collections.<ExcludedDate>emptyList(),
+            Arrays.asList(
+                new BlackoutWindow("maintenance", LocalDateTime.of(2019, 7, 22, 10, 0), LocalDateTime.of(2019, 7, 22, 12, 0)),
+                new BlackoutWindow("migration", LocalDateTime.of(2019, 7, 22, 12, 0), LocalDateTime.of(2019, 7, 22, 13, 0))));
+
+        ScheduleVerdictCache.Verdict during = new ScheduleVerdictCache().lookup(snapshot, MONDAY + 660);
+        assertTrue(during.isExcluded());
+        assertEquals(MONDAY + 780, during.getValidUntil());
+    }
+}
@@ -0,0 +1,107 @@
+package test.org.jenkinsci.plugins.workinghours.schedule;
+
+import org.jenkinsci.plugins.workinghours.model.TimeRange;
+import org.jenkinsci.plugins.workinghours.schedule.WeeklySchedule;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class WeeklyScheduleTest {
+
+    @Test
+    public void testBoundsAreInclusive() {
+        // Thursday 10:00 - 11:00
+        WeeklySchedule schedule = WeeklySchedule.compile(Collections.singletonList(new TimeRange(600, 660, 4)));
+
+        assertTrue(schedule.isAllowed(4, 600));
+        assertTrue(schedule.isAllowed(4, 630));
+        assertTrue(schedule.isAllowed(4, 660));
+        assertFalse(schedule.isAllowed(4, 599));
+        assertFalse(schedule.isAllowed(4, 661));
+        assertFalse(schedule.isAllowed(3, 630));
+    }
+
+    @Test
+    public void testMatchesIncludesTime() {
+        TimeRange[] ranges = {new TimeRange(0, 1439, 0), new TimeRange(61, 63, 2), new TimeRange(540, 1020, 6)};
+        WeeklySchedule schedule = WeeklySchedule.compile(Arrays.asList(ranges));
+
+        for (int day = 0; day < WeeklySchedule.DAYS_PER_WEEK; day++) {
+            for (int minute = 0; minute < WeeklySchedule.MINUTES_PER_DAY; minute++) {
+                boolean expected = false;
+                for (TimeRange range : ranges) {
+                    expected |= range.getDayOfWeek() == day && range.getStartTime() <= minute && minute <= range.getEndTime();
+                }
+                assertEquals(expected, schedule.isAllowed(day, minute));
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyAndEquality() {
+        assertTrue(WeeklySchedule.compile(Collections.<TimeRange>emptyList()).isEmpty());
+        assertFalse(WeeklySchedule.compile(Collections.singletonList(new TimeRange(0, 0, 0))).isEmpty());
+        assertEquals(WeeklySchedule.compile(Arrays.asList(new TimeRange(600, 700, 1), new TimeRange(650, 720, 1))),
+            WeeklySchedule.compile(Collections.singletonList(new TimeRange(600, 720, 1))));
+    }
+
+    @Test
+    public void testMinutesUntilChange() {
+        // Monday 09:00 - 17:00 and Saturday 23:00 - 23:59
+        WeeklySchedule schedule = WeeklySchedule.compile(Arrays.asList(new TimeRange(540, 1020, 1), new TimeRange(1380, 1439, 6)));
+        int monday = WeeklySchedule.MINUTES_PER_DAY;
+        int saturday = 6 * WeeklySchedule.MINUTES_PER_DAY;
+
+        assertEquals(540, schedule.minutesUntilChange(monday));
+        assertEquals(1, schedule.minutesUntilChange(monday + 539));
+        assertEquals(481, schedule.minutesUntilChange(monday + 540));
+        assertEquals(60, schedule.minutesUntilChange(saturday + 1380));
+        // Wraps around from Saturday night to Sunday and to Monday morning.
+        assertEquals(1, schedule.minutesUntilChange(saturday + 1439));
+        assertEquals(WeeklySchedule.MINUTES_PER_DAY + 540, schedule.minutesUntilChange(0));
+        WeeklySchedule mondayOnly = WeeklySchedule.compile(Collections.singletonList(new TimeRange(540, 1020, 1)));
+        assertEquals(1340 + WeeklySchedule.MINUTES_PER_DAY + 540, mondayOnly.minutesUntilChange(saturday + 100));
+        assertEquals(WeeklySchedule.MINUTES_PER_WEEK,
+            WeeklySchedule.compile(Collections.<TimeRange>emptyList()).minutesUntilChange(monday));
+    }
+
+    @Test
+    public void testIdenticalSchedulesAreShared() {
+        WeeklySchedule schedule = WeeklySchedule.compile(Collections.singletonList(new TimeRange(540, 1020, 1)));
+        // The same minutes, split differently.
+        WeeklySchedule split = WeeklySchedule.compile(Arrays.asList(new TimeRange(540, 700, 1), new TimeRange(701, 1020, 1)));
+
+        assertSame(schedule, split);
+        assertNotSame(schedule, WeeklySchedule.compile(Collections.singletonList(new TimeRange(540, 1020, 2))));
+    }
+
+    @Test
+    public void testChangesMatchCompile() {
+        TimeRange morning = new TimeRange(540, 720, 1);
+        TimeRange overlapping = new TimeRange(600, 1020, 1);
+        TimeRange saturday = new TimeRange(0, 1439, 6);
+        WeeklySchedule schedule = WeeklySchedule.compile(Arrays.asList(morning, overlapping, saturday));
+
+        // Removing a range keeps the minutes another range of the same day allows.
+        assertSame(WeeklySchedule.compile(Arrays.asList(overlapping, saturday)),
+            schedule.withChanges(Arrays.asList(overlapping, saturday),
+                Collections.<TimeRange>emptyList(), Collections.singletonList(morning)));
+
+        TimeRange evening = new TimeRange(1080, 1200, 1);
+        assertSame(WeeklySchedule.compile(Arrays.asList(morning, evening, saturday)),
+            schedule.withChanges(Arrays.asList(morning, evening, saturday),
+                Collections.singletonList(evening), Collections.singletonList(overlapping)));
+
+        TimeRange sunday = new TimeRange(60, 120, 0);
+        assertSame(WeeklySchedule.compile(Arrays.asList(morning, overlapping, saturday, sunday)),
+            schedule.withChanges(Arrays.asList(morning, overlapping, saturday, sunday),
+                Collections.singletonList(sunday), Collections.<TimeRange>emptyList()));
+    }
+}
@@ -2,11 +2,15 @@ package test.org.jenkinsci.plugins.workinghours.utility;
 
 import net.sf.json.JSONObject;
 import org.jenkinsci.plugins.workinghours.model.Holiday;
+import org.jenkinsci.plugins.workinghours.presets.ChineseHolidayManager;
 import org.jenkinsci.plugins.workinghours.presets.PresetManager;
 import org.junit.Test;
 
+import java.time.LocalDate;
 import java.util.List;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 
@@ -20,4 +24,16 @@ public class ChineseLunarCalendarTest {
         }
         assertTrue(true);
     }
+
+    @Test
+    public void testFestivalTable() {
+        ChineseHolidayManager manager = ChineseHolidayManager.getInstance();
+
+        assertEquals(LocalDate.of(2020, 1, 25).toEpochDay(), manager.getEpochDay("SPRING_FESTIVAL", 2020));
+        assertEquals(LocalDate.of(2019, 9, 13).toEpochDay(), manager.getEpochDay("MID-AUTUMN_FESTIVAL", 2019));
+        assertEquals(LocalDate.of(2019, 9, 13).toEpochDay(),
+            PresetManager.getInstance().getHolidayEpochDay("CN", "MID-AUTUMN_FESTIVAL", 2019));
+        assertEquals(PresetManager.NO_HOLIDAY, manager.getEpochDay("CHRISTMAS", 2019));
+        assertSame(manager.getHolidayThisYear(), manager.getHolidayThisYear());
+    }
 }
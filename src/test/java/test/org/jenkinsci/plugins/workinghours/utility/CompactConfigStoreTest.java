@@ -0,0 +1,81 @@
+package test.org.jenkinsci.plugins.workinghours.utility;
+
+import org.jenkinsci.plugins.workinghours.model.TimeRange;
+import org.jenkinsci.plugins.workinghours.utils.CompactConfig;
+import org.jenkinsci.plugins.workinghours.utils.CompactConfigStore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CompactConfigStoreTest {
+
+    private static final String XML = "<?xml version='1.1' encoding='UTF-8'?>\n<working-hours/>\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static CompactConfig config(int endTime) {
+        return new CompactConfig(Collections.singletonList(new TimeRange(540, endTime, 1)), null, null, null, null);
+    }
+
+    @Test
+    public void testMigrationKeepsXmlAsBackup() throws Exception {
+        File bin = new File(folder.getRoot(), "working-hours.bin");
+        File xml = new File(folder.getRoot(), "working-hours.xml");
+        Files.write(xml.toPath(), XML.getBytes(StandardCharsets.UTF_8));
+
+        CompactConfigStore store = new CompactConfigStore(bin, xml);
+        assertNull(store.read());
+        assertEquals(xml, store.getFallbackFile());
+        assertFalse(store.isReadOnly());
+
+        store.write(config(1020));
+
+        assertFalse(xml.exists());
+        File backup = new File(folder.getRoot(), "working-hours.xml.bak");
+        assertEquals(XML, new String(Files.readAllBytes(backup.toPath()), StandardCharsets.UTF_8));
+        assertEquals(1020, new CompactConfigStore(bin, xml).read().getTimeRanges().get(0).getEndTime());
+    }
+
+    @Test
+    public void testCorruptFileFallsBackToBackupAndIsNotOverwritten() throws Exception {
+        File bin = new File(folder.getRoot(), "working-hours.bin");
+        File xml = new File(folder.getRoot(), "working-hours.xml");
+        Files.write(xml.toPath(), XML.getBytes(StandardCharsets.UTF_8));
+        new CompactConfigStore(bin, xml).write(config(1020));
+
+        byte[] corrupt = Files.readAllBytes(bin.toPath());
+        Arrays.fill(corrupt, 8, corrupt.length, (byte) 0xFF);
+        Files.write(bin.toPath(), corrupt);
+
+        CompactConfigStore store = new CompactConfigStore(bin, xml);
+        assertNull(store.read());
+        assertTrue(store.isReadOnly());
+        File backup = store.getFallbackFile();
+        assertEquals(new File(folder.getRoot(), "working-hours.xml.bak"), backup);
+        assertEquals(XML, new String(Files.readAllBytes(backup.toPath()), StandardCharsets.UTF_8));
+
+        try {
+            store.write(config(600));
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("not overwritten"));
+        }
+        assertArrayEquals(corrupt, Files.readAllBytes(bin.toPath()));
+        assertTrue(backup.isFile());
+    }
+}
@@ -0,0 +1,204 @@
+package test.org.jenkinsci.plugins.workinghours.utility;
+
+import net.sf.json.JSONObject;
+import org.jenkinsci.plugins.workinghours.model.BlackoutWindow;
+import org.jenkinsci.plugins.workinghours.model.DateType;
+import org.jenkinsci.plugins.workinghours.model.ExcludedDate;
+import org.jenkinsci.plugins.workinghours.model.NodeSchedule;
+import org.jenkinsci.plugins.workinghours.model.RepeatPeriod;
+import org.jenkinsci.plugins.workinghours.model.ScheduleProfile;
+import org.jenkinsci.plugins.workinghours.model.TimeRange;
+import org.jenkinsci.plugins.workinghours.utils.CompactConfig;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CompactConfigTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static int day(int year, int month, int dayOfMonth) {
+        return (int) LocalDate.of(year, month, dayOfMonth).toEpochDay();
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        TimeRange timeRange = new TimeRange(540, 1020, 1);
+        ExcludedDate recurring = ExcludedDateUtility.recurring(
+            ExcludedDateUtility.startDate(LocalDate.of(1969, 12, 25), false, 1, 1, 1),
+            RepeatPeriod.REPEAT_BY_WEEK, 2, 5, LocalDate.of(2020, 1, 1));
+        ExcludedDate thirdWednesday = ExcludedDateUtility.dynamicDate(1, 3, 3, RepeatPeriod.REPEAT_BY_MONTH);
+        ExcludedDate christmas = ExcludedDateUtility.holiday("DE", "CHRISTMAS");
+        BlackoutWindow blackoutWindow = new BlackoutWindow("maintenance",
+            LocalDateTime.of(2019, 7, 6, 2, 0), LocalDateTime.of(2019, 7, 6, 4, 30, 15));
+        CompactConfig config = new CompactConfig(
+            Collections.singletonList(timeRange),
+            Arrays.asList(recurring, thirdWednesday, christmas),
+            Collections.singletonList(blackoutWindow),
+            Collections.singletonList(new ScheduleProfile("nightly", Collections.singletonList(new TimeRange(0, 360, 2)))),
+            Arrays.asList(new NodeSchedule("windows", "nightly"), new NodeSchedule("linux", null)));
+
+        File file = new File(folder.getRoot(), "config.bin");
+        config.write(file);
+        CompactConfig read = CompactConfig.read(file);
+
+        TimeRange readRange = read.getTimeRanges().get(0);
+        assertEquals(timeRange.getId(), readRange.getId());
+        assertEquals(540, readRange.getStartTime());
+        assertEquals(1020, readRange.getEndTime());
+        assertEquals(1, readRange.getDayOfWeek());
+        assertEquals(3, read.getExcludedDates().size());
+        for (int i = 0; i < 3; i++) {
+            assertSameExcludedDate(config.getExcludedDates().get(i), read.getExcludedDates().get(i));
+        }
+        assertTrue(read.getExcludedDates().get(0).excludes(day(1970, 1, 8)));
+        assertTrue(read.getExcludedDates().get(1).excludes(day(2019, 7, 17)));
+        assertTrue(read.getExcludedDates().get(2).excludes(day(2019, 12, 25)));
+
+        BlackoutWindow readWindow = read.getBlackoutWindows().get(0);
+        assertEquals(blackoutWindow.getStart(), readWindow.getStart());
+        assertEquals(blackoutWindow.getEnd(), readWindow.getEnd());
+        assertEquals(blackoutWindow.getStartMinute(), readWindow.getStartMinute());
+
+        assertEquals("nightly", read.getScheduleProfiles().get(0).getName());
+        assertEquals(360, read.getScheduleProfiles().get(0).getTimeRanges().get(0).getEndTime());
+        assertEquals("nightly", read.getNodeSchedules().get(0).getProfile());
+        assertNull(read.getNodeSchedules().get(1).getProfile());
+    }
+
+    @Test
+    public void testKeepsDatesThatAreNotIsoDates() throws Exception {
+        JSONObject startDate = ExcludedDateUtility.startDate(LocalDate.of(2019, 7, 22), false, 1, 1, 1)
+            .element("date", "2019-07-21T16:00:00.000Z");
+        ExcludedDate shifted = ExcludedDateUtility.recurring(startDate, RepeatPeriod.REPEAT_BY_YEAR, 1, -1, null);
+        JSONObject odd = ExcludedDateUtility.startDate(LocalDate.of(2019, 7, 22), false, 1, 1, 1)
+            .element("date", "+12019-07-21T00:00:00Z");
+        CompactConfig config = new CompactConfig(null,
+            Arrays.asList(shifted, ExcludedDateUtility.recurring(odd, RepeatPeriod.REPEAT_BY_YEAR, 1, -1, null)),
+            null, null, null);
+
+        List<ExcludedDate> read = roundTrip(config).getExcludedDates();
+
+        assertEquals("2019-07-21T16:00:00.000Z", read.get(0).getStartDate().getDate());
+        assertEquals("+12019-07-21T00:00:00Z", read.get(1).getStartDate().getDate());
+    }
+
+    @Test
+    public void testKeepsMissingRepeatPeriod() throws Exception {
+        ExcludedDate.Date startDate = new ExcludedDate.Date("2019-07-22T00:00:00Z", false, 1, 1, 1);
+        ExcludedDate noPeriod = new ExcludedDate("id", "no period", DateType.TYPE_CUSTOM, 0, null,
+            startDate, null, true, false, 0, null, 1, null, null);
+
+        ExcludedDate read = roundTrip(new CompactConfig(null, Collections.singletonList(noPeriod), null, null, null))
+            .getExcludedDates().get(0);
+
+        assertFalse(read.hasRepeatPeriod());
+        assertTrue(read.excludes(day(2019, 7, 22)));
+    }
+
+    @Test
+    public void testSharesRepeatedStrings() throws Exception {
+        ExcludedDate[] dates = new ExcludedDate[200];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = ExcludedDateUtility.staticDate(LocalDate.of(2019, 1, 1).plusDays(i));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new CompactConfig(null, Arrays.asList(dates), null, null, null).write(bytes);
+
+        // Mostly the ids, the rest of each date takes a few bytes.
+        assertTrue(bytes.size() < dates.length * 60);
+    }
+
+    @Test
+    public void testRejectsUnknownVersion() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new CompactConfig(null, null, null, null, null).write(bytes);
+        byte[] data = bytes.toByteArray();
+        data[7]++;
+
+        try {
+            CompactConfig.read(new ByteArrayInputStream(data), data.length);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("version"));
+        }
+    }
+
+    @Test
+    public void testRejectsCountsLargerThanTheFile() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new CompactConfig(null, null, null, null, null).write(bytes);
+        byte[] empty = bytes.toByteArray();
+
+        // A string count of Integer.MAX_VALUE right after the header.
+        byte[] strings = Arrays.copyOf(empty, 13);
+        System.arraycopy(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07}, 0, strings, 8, 5);
+        assertCorrupt(strings);
+
+        // No strings, then a time range count of Integer.MAX_VALUE.
+        byte[] timeRanges = Arrays.copyOf(empty, 14);
+        System.arraycopy(new byte[]{0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07}, 0, timeRanges, 8, 6);
+        assertCorrupt(timeRanges);
+    }
+
+    private static void assertCorrupt(byte[] data) {
+        try {
+            CompactConfig.read(new ByteArrayInputStream(data), data.length);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("Corrupt"));
+        }
+    }
+
+    private static void assertSameExcludedDate(ExcludedDate expected, ExcludedDate actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getUtcOffset(), actual.getUtcOffset());
+        assertEquals(expected.getTimezone(), actual.getTimezone());
+        assertSameDate(expected.getStartDate(), actual.getStartDate());
+        assertSameDate(expected.getEndDate(), actual.getEndDate());
+        assertEquals(expected.isNoEnd(), actual.isNoEnd());
+        assertEquals(expected.isRepeat(), actual.isRepeat());
+        assertEquals(expected.getRepeatCount(), actual.getRepeatCount());
+        assertEquals(expected.getRepeatPeriod(), actual.getRepeatPeriod());
+        assertEquals(expected.getRepeatInterval(), actual.getRepeatInterval());
+        assertEquals(expected.getHolidayRegion(), actual.getHolidayRegion());
+        assertEquals(expected.getHolidayId(), actual.getHolidayId());
+    }
+
+    private static void assertSameDate(ExcludedDate.Date expected, ExcludedDate.Date actual) {
+        if (expected == null) {
+            assertNull(actual);
+            return;
+        }
+        assertEquals(expected.getDate(), actual.getDate());
+        assertEquals(expected.isDynamic(), actual.isDynamic());
+        assertEquals(expected.getDynamicMonth(), actual.getDynamicMonth());
+        assertEquals(expected.getDynamicWeek(), actual.getDynamicWeek());
+        assertEquals(expected.getDynamicWeekday(), actual.getDynamicWeekday());
+    }
+
+    private static CompactConfig roundTrip(CompactConfig config) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        config.write(bytes);
+        return CompactConfig.read(new ByteArrayInputStream(bytes.toByteArray()), bytes.size());
+    }
+}
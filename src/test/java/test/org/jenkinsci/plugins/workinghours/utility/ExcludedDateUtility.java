@@ -0,0 +1,109 @@
+package test.org.jenkinsci.plugins.workinghours.utility;
+
+import net.sf.json.JSONObject;
+import org.jenkinsci.plugins.workinghours.model.DateType;
+import org.jenkinsci.plugins.workinghours.model.ExcludedDate;
+import org.jenkinsci.plugins.workinghours.model.RepeatPeriod;
+
+import java.time.LocalDate;
+
+/**
+ * Helper methods to create different types of excluded dates for use in testing.
+ */
+public class ExcludedDateUtility {
+
+    /**
+     * Helper function to create an excluded date for a regional holiday.
+     *
+     * @param region    The region code.
+     * @param holidayId The holiday's key.
+     * @return The excluded date.
+     */
+    public static ExcludedDate holiday(String region, String holidayId) {
+        JSONObject json = excludedDateJson(DateType.TYPE_HOLIDAY, startDate(LocalDate.now(), false, 1, 1, 1), RepeatPeriod.REPEAT_BY_YEAR);
+        json.element("holidayRegion", region);
+        json.element("holidayId", holidayId);
+        return new ExcludedDate(json);
+    }
+
+    /**
+     * Helper function to create an excluded date for a single static date.
+     *
+     * @param date The date to exclude.
+     * @return The excluded date.
+     */
+    public static ExcludedDate staticDate(LocalDate date) {
+        return new ExcludedDate(excludedDateJson(DateType.TYPE_CUSTOM, startDate(date, false, 1, 1, 1), RepeatPeriod.REPEAT_BY_YEAR));
+    }
+
+    /**
+     * Helper function to create a dynamic excluded date, like the second Monday of May,
+     * repeating without end since 2000.
+     *
+     * @param month   The month, ranging from 1 to 12.
+     * @param week    The nth appearance of the weekday.
+     * @param weekday The weekday, ranging from 1 to 7, Monday to Sunday.
+     * @param period  How the date repeats.
+     * @return The excluded date.
+     */
+    public static ExcludedDate dynamicDate(int month, int week, int weekday, RepeatPeriod period) {
+        return new ExcludedDate(excludedDateJson(DateType.TYPE_CUSTOM, startDate(LocalDate.of(2000, 1, 1), true, month, week, weekday), period)
+            .element("repeat", true));
+    }
+
+    /**
+     * Helper function to create a repeating excluded date.
+     *
+     * @param startDate The start date, as built by {@link #startDate}.
+     * @param period    How the date repeats.
+     * @param interval  Every how many periods the date repeats.
+     * @param count     How many periods it repeats for, or -1 for no limit.
+     * @param endDate   The last date it may occur on, or null for no end.
+     * @return The excluded date.
+     */
+    public static ExcludedDate recurring(JSONObject startDate, RepeatPeriod period, int interval, int count, LocalDate endDate) {
+        JSONObject json = excludedDateJson(DateType.TYPE_CUSTOM, startDate, period)
+            .element("repeat", true)
+            .element("repeatInterval", interval)
+            .element("repeatCount", count);
+        if (endDate != null) {
+            json.element("noEnd", false);
+            json.element("endDate", new JSONObject().element("date", endDate + "T00:00:00Z"));
+        }
+        return new ExcludedDate(json);
+    }
+
+    /**
+     * Helper function to create the start date of an excluded date.
+     *
+     * @param date    The date, used as is for a static date and as the start of a dynamic one.
+     * @param dynamic Whether the date is dynamic.
+     * @param month   The month of a dynamic date.
+     * @param week    The nth appearance of the weekday of a dynamic date.
+     * @param weekday The weekday of a dynamic date.
+     * @return The start date json.
+     */
+    public static JSONObject startDate(LocalDate date, boolean dynamic, int month, int week, int weekday) {
+        return new JSONObject()
+            .element("date", date + "T00:00:00Z")
+            .element("dynamic", dynamic)
+            .element("dynamicMonth", month)
+            .element("dynamicWeek", week)
+            .element("dynamicWeekday", weekday);
+    }
+
+    static JSONObject excludedDateJson(DateType type, JSONObject startDate, RepeatPeriod period) {
+        return new JSONObject()
+            .element("utcOffset", 0)
+            .element("timezone", "UTC")
+            .element("type", type.getValue())
+            .element("name", "test excluded date")
+            .element("startDate", startDate)
+            .element("endDate", new JSONObject())
+            .element("noEnd", true)
+            .element("repeat", false)
+            .element("repeatCount", -1)
+            .element("repeatPeriod", period.getValue())
+            .element("repeatInterval", 1);
+    }
+}
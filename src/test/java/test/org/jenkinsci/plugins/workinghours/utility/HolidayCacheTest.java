@@ -0,0 +1,100 @@
+package test.org.jenkinsci.plugins.workinghours.utility;
+
+import org.jenkinsci.plugins.workinghours.utils.HolidayCache;
+import org.jenkinsci.plugins.workinghours.utils.HolidayTable;
+import org.jenkinsci.plugins.workinghours.utils.TimeSource;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class HolidayCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private HolidayTable load(String regionCode, int year) {
+        loads.incrementAndGet();
+        return new HolidayTable(regionCode, year, new String[0], new String[0], new int[0]);
+    }
+
+    private static void setYear(int year) {
+        TimeSource.setClock(Clock.fixed(LocalDate.of(year, 6, 1).atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+    }
+
+    @After
+    public void tearDown() {
+        TimeSource.setClock(null);
+    }
+
+    @Test
+    public void testDropsLeastRecentlyUsed() {
+        setYear(2019);
+        HolidayCache cache = new HolidayCache(2, this::load);
+
+        HolidayTable holidays = cache.get("DE", 2019);
+        assertSame(holidays, cache.get("DE", 2019));
+        cache.get("DE", 2020);
+        cache.get("US", 2019);
+
+        assertEquals(3, loads.get());
+        assertEquals(2, cache.size());
+
+        // ("DE", 2019) was the least recently used one.
+        cache.get("DE", 2019);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void testInvalidatedAtYearRollover() {
+        setYear(2019);
+        HolidayCache cache = new HolidayCache(8, this::load);
+        cache.get("DE", 2020);
+
+        setYear(2020);
+        cache.get("DE", 2020);
+
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testConcurrentLoadsAreShared() throws InterruptedException {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        HolidayCache cache = new HolidayCache(8, (regionCode, year) -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new HolidayTable(regionCode, year, new String[0], new String[0], new int[0]);
+        });
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> cache.get("DE", 2019));
+            threads.add(thread);
+            thread.start();
+            if (i == 0) {
+                loading.await();
+            }
+        }
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1, loads.get());
+    }
+}
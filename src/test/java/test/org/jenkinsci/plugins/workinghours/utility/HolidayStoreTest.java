@@ -0,0 +1,76 @@
+package test.org.jenkinsci.plugins.workinghours.utility;
+
+import org.jenkinsci.plugins.workinghours.utils.HolidayStore;
+import org.jenkinsci.plugins.workinghours.utils.HolidayTable;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class HolidayStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static HolidayTable table(String regionCode, int year) {
+        return new HolidayTable(regionCode, year,
+            new String[]{"NEW_YEAR", "CHRISTMAS"},
+            new String[]{"New Year", "Christmas"},
+            new int[]{(int) LocalDate.of(year, 1, 1).toEpochDay(), (int) LocalDate.of(year, 12, 25).toEpochDay()});
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        File file = new File(folder.getRoot(), "holidays.bin");
+        HolidayStore store = HolidayStore.open(file, "v1");
+        assertNull(store.get("US", 2019));
+        store.put(table("US", 2019));
+        store.put(table("DE", 2020));
+        assertTrue(store.isDirty());
+        store.save(2019);
+        assertFalse(store.isDirty());
+
+        HolidayStore reopened = HolidayStore.open(file, "v1");
+        assertFalse(reopened.isDirty());
+        HolidayTable table = reopened.get("DE", 2020);
+        assertEquals(2, table.size());
+        assertEquals("Christmas", table.getDescription(1));
+        assertEquals(LocalDate.of(2020, 12, 25).toEpochDay(), table.epochDayOf("CHRISTMAS"));
+        assertEquals(HolidayTable.NONE, table.epochDayOf("EASTER"));
+        assertEquals(LocalDate.of(2019, 1, 1).toEpochDay(), reopened.get("US", 2019).getEpochDay(0));
+        assertNull(reopened.get("US", 2020));
+    }
+
+    @Test
+    public void testIgnoresStaleData() throws Exception {
+        File file = new File(folder.getRoot(), "holidays.bin");
+        HolidayStore store = HolidayStore.open(file, "v1");
+        store.put(table("US", 2019));
+        store.save(2019);
+
+        assertNull(HolidayStore.open(file, "v2").get("US", 2019));
+    }
+
+    @Test
+    public void testDropsPastYearsOnSave() throws Exception {
+        File file = new File(folder.getRoot(), "holidays.bin");
+        HolidayStore store = HolidayStore.open(file, "v1");
+        store.put(table("US", 2019));
+        store.save(2019);
+
+        HolidayStore reopened = HolidayStore.open(file, "v1");
+        reopened.put(table("US", 2020));
+        reopened.save(2020);
+
+        HolidayStore next = HolidayStore.open(file, "v1");
+        assertNull(next.get("US", 2019));
+        assertEquals(2, next.get("US", 2020).size());
+    }
+}
@@ -0,0 +1,53 @@
+package test.org.jenkinsci.plugins.workinghours.utility;
+
+import org.jenkinsci.plugins.workinghours.utils.NthWeekdayResolver;
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+import static org.junit.Assert.assertEquals;
+
+public class NthWeekdayResolverTest {
+
+    private static int day(int year, int month, int dayOfMonth) {
+        return (int) LocalDate.of(year, month, dayOfMonth).toEpochDay();
+    }
+
+    @Test
+    public void testMatchesJavaTime() {
+        for (int year = 1899; year <= 2201; year += 3) {
+            for (int month = 1; month <= 12; month++) {
+                LocalDate first = LocalDate.of(year, month, 1);
+                for (int weekday = 1; weekday <= 7; weekday++) {
+                    DayOfWeek dayOfWeek = DayOfWeek.of(weekday);
+                    for (int week = 1; week <= 4; week++) {
+                        assertEquals(first.with(TemporalAdjusters.dayOfWeekInMonth(week, dayOfWeek)).toEpochDay(),
+                            NthWeekdayResolver.nthWeekday(year, month, week, weekday));
+                    }
+                    assertEquals(first.with(TemporalAdjusters.lastInMonth(dayOfWeek)).toEpochDay(),
+                        NthWeekdayResolver.nthWeekday(year, month, NthWeekdayResolver.LAST, weekday));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLastWeekday() {
+        // July 2019 has five Mondays, June 2019 only four.
+        assertEquals(day(2019, 7, 29), NthWeekdayResolver.lastWeekday(2019, 7, 1));
+        assertEquals(day(2019, 6, 24), NthWeekdayResolver.nthWeekday(2019, 6, NthWeekdayResolver.LAST, 1));
+        // Sunday given as 0.
+        assertEquals(day(2019, 6, 30), NthWeekdayResolver.lastWeekday(2019, 6, 0));
+        assertEquals(NthWeekdayResolver.NONE, NthWeekdayResolver.nthWeekday(2019, 13, 1, 1));
+    }
+
+    @Test
+    public void testNextOccurrence() {
+        int now = day(2019, 7, 30);
+        assertEquals(day(2019, 8, 26), NthWeekdayResolver.nextByMonth(NthWeekdayResolver.LAST, 1, now));
+        assertEquals(day(2019, 7, 31), NthWeekdayResolver.nextByMonth(NthWeekdayResolver.LAST, 3, now));
+        assertEquals(day(2020, 5, 25), NthWeekdayResolver.nextByYear(5, NthWeekdayResolver.LAST, 1, now));
+    }
+}
@@ -0,0 +1,62 @@
+package test.org.jenkinsci.plugins.workinghours.utility;
+
+import org.jenkinsci.plugins.workinghours.utils.TimeSource;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.junit.Assert.assertEquals;
+
+public class TimeSourceTest {
+
+    private static final ZoneId BERLIN = ZoneId.of("Europe/Berlin");
+
+    @After
+    public void tearDown() {
+        TimeSource.setClock(null);
+    }
+
+    private static void setNow(LocalDateTime now) {
+        TimeSource.setClock(Clock.fixed(now.atZone(BERLIN).toInstant(), BERLIN));
+    }
+
+    @Test
+    public void testEpochMinuteIsLocalWallClockTime() {
+        LocalDateTime now = LocalDateTime.of(2019, 7, 22, 9, 30);
+        setNow(now);
+
+        long epochMinute = TimeSource.epochMinute();
+        int epochDay = TimeSource.epochDay(epochMinute);
+
+        assertEquals(now.toLocalDate().toEpochDay(), epochDay);
+        assertEquals(9 * 60 + 30, TimeSource.minuteOfDay(epochMinute));
+        // 2019-07-22 is a Monday.
+        assertEquals(1, TimeSource.dayOfWeek(epochDay));
+        assertEquals(now.toLocalDate(), TimeSource.today());
+        assertEquals(2019, TimeSource.currentYear());
+    }
+
+    @Test
+    public void testEpochMinuteFollowsDaylightSavingTime() {
+        // Berlin switches from UTC+1 to UTC+2 at 2019-03-31 02:00.
+        ZonedDateTime beforeSwitch = LocalDateTime.of(2019, 3, 31, 1, 59).atZone(BERLIN);
+        TimeSource.setClock(Clock.fixed(beforeSwitch.toInstant(), BERLIN));
+        assertEquals(60 + 59, TimeSource.minuteOfDay(TimeSource.epochMinute()));
+
+        TimeSource.setClock(Clock.offset(TimeSource.getClock(), Duration.ofMinutes(1)));
+        assertEquals(3 * 60, TimeSource.minuteOfDay(TimeSource.epochMinute()));
+    }
+
+    @Test
+    public void testDayOfWeekMatchesLocalDate() {
+        for (int day = -10; day < 10; day++) {
+            assertEquals(LocalDate.ofEpochDay(day).getDayOfWeek().getValue() % 7, TimeSource.dayOfWeek(day));
+        }
+    }
+}